@@ -0,0 +1,60 @@
+package com.ggrec.spore.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.ggrec.spore.Spore;
+import com.ggrec.spore.Spore.ISporable;
+
+/**
+ * ggrec, 2017-11-20: Many threads unfreezing the same frozen spores, like a server does. Shows the contention on the shared
+ *                    state: the registry, the instantiators, the codecs and the payload pool. Compare the throughput with
+ *                    {@link ThawBenchmark}, which has a single thread.
+ *
+ * @author ggrec
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Threads(Threads.MAX)
+public class ConcurrentThawBenchmark
+{
+
+	@Param({ "WIDE_RECORD", "LARGE_COLLECTION", "POLYMORPHIC_LIST" })
+	SporeCorpus corpus;
+
+	String frozenSpore;
+
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		frozenSpore = corpus.create().assembleSpore().build().toString();
+	}
+
+
+	@Benchmark
+	public ISporable toInstance()
+	{
+		return Spore.fromFrozenSpore(frozenSpore).toInstance();
+	}
+
+
+	@Benchmark
+	public ISporable toInstance_Lazy()
+	{
+		return Spore.fromFrozenSpore_Lazy(frozenSpore).toInstance();
+	}
+
+}
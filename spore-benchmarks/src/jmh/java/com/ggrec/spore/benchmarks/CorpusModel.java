@@ -0,0 +1,467 @@
+package com.ggrec.spore.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.ggrec.spore.Spore;
+import com.ggrec.spore.Spore.ISporable;
+import com.ggrec.spore.Spore.Sporable;
+import com.ggrec.spore.SporeBuilder;
+import com.ggrec.spore.SporeParser;
+import com.google.common.collect.Maps;
+
+/**
+ * ggrec, 2017-11-20: The sporable classes of the benchmark corpora, see {@link SporeCorpus}. Written by hand, like most of
+ *                    the sporables out there, through the fastest API for each field.
+ *
+ * @author ggrec
+ *
+ */
+public final class CorpusModel
+{
+
+	// ==================== 4. Constructors ====================
+
+	private CorpusModel()
+	{
+	}
+
+
+	// =======================================================
+	// 			 19. Inline Classes
+	// =======================================================
+
+	public enum TradeStatus
+	{
+		PENDING,
+		BOOKED,
+		SETTLED,
+		CANCELLED
+	}
+
+
+	/**
+	 * A trade, with the usual mix of numbers, identifiers and text
+	 */
+	@Sporable(version = "1", uniqueIdentifier = "bench.WideRecord")
+	public static final class WideRecord implements ISporable
+	{
+
+		long id;
+		UUID accountId;
+		String book;
+		String trader;
+		String counterparty;
+		String currency;
+		String instrument;
+		TradeStatus status;
+		LocalDate tradeDate;
+		LocalDate settlementDate;
+		long timestamp;
+		int quantity;
+		int lotSize;
+		double price;
+		double notional;
+		double fee;
+		double fxRate;
+		boolean settled;
+		boolean amended;
+		Integer parentTradeId;
+		String comment;
+		int revision;
+
+		public WideRecord()
+		{
+		}
+
+		WideRecord(final int seed)
+		{
+			this.id = 1_000_000L + seed;
+			this.accountId = new UUID(seed, ~seed);
+			this.book = "BOOK-" + seed % 17; //$NON-NLS-1$
+			this.trader = "trader" + seed % 31; //$NON-NLS-1$
+			this.counterparty = "CPTY-" + seed % 101; //$NON-NLS-1$
+			this.currency = seed % 2 == 0 ? "EUR" : "USD"; //$NON-NLS-1$ //$NON-NLS-2$
+			this.instrument = "ISIN" + (100_000_000 + seed); //$NON-NLS-1$
+			this.status = TradeStatus.values()[seed % TradeStatus.values().length];
+			this.tradeDate = LocalDate.of(2017, 1 + seed % 12, 1 + seed % 28);
+			this.settlementDate = tradeDate.plusDays(2);
+			this.timestamp = 1_500_000_000_000L + seed * 1_000L;
+			this.quantity = seed % 1000;
+			this.lotSize = 100;
+			this.price = 100 + seed / 7.0;
+			this.notional = price * quantity;
+			this.fee = notional * 0.0001;
+			this.fxRate = 1.1 + seed % 10 / 100.0;
+			this.settled = seed % 3 == 0;
+			this.amended = seed % 5 == 0;
+			this.parentTradeId = seed % 4 == 0 ? null : seed - 1;
+			this.comment = seed % 2 == 0 ? null : "Amended after the close, see ticket " + seed; //$NON-NLS-1$
+			this.revision = seed % 3;
+		}
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return new SporeBuilder(WideRecord.class)
+					.append(id)
+					.append(accountId)
+					.append(book)
+					.append(trader)
+					.append(counterparty)
+					.append(currency)
+					.append(instrument)
+					.append(status)
+					.append(tradeDate)
+					.append(settlementDate)
+					.append(timestamp)
+					.append(quantity)
+					.append(lotSize)
+					.append(price)
+					.append(notional)
+					.append(fee)
+					.append(fxRate)
+					.append(settled)
+					.append(amended)
+					.append(parentTradeId)
+					.append(comment)
+					.append(revision);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			final SporeParser parser = new SporeParser(spore);
+
+			id = parser.nextLong();
+			accountId = parser.nextAsUUID();
+			book = parser.nextAsString();
+			trader = parser.nextAsString();
+			counterparty = parser.nextAsString();
+			currency = parser.nextAsString();
+			instrument = parser.nextAsString();
+			status = parser.nextAsEnum(TradeStatus.class);
+			tradeDate = parser.nextAsDate();
+			settlementDate = parser.nextAsDate();
+			timestamp = parser.nextLong();
+			quantity = parser.nextInt();
+			lotSize = parser.nextInt();
+			price = parser.nextDouble();
+			notional = parser.nextDouble();
+			fee = parser.nextDouble();
+			fxRate = parser.nextDouble();
+			settled = parser.nextBoolean();
+			amended = parser.nextBoolean();
+			parentTradeId = parser.nextAsInteger();
+			comment = parser.nextAsString();
+			revision = parser.nextInt();
+
+			return this;
+		}
+
+	}
+
+
+	/**
+	 * One level of a deep tree. Each level has a sibling leaf, so the composites aren't only single children.
+	 */
+	@Sporable(version = "1", uniqueIdentifier = "bench.Node")
+	public static final class Node implements ISporable
+	{
+
+		int depth;
+		String label;
+		Node leaf;
+		Node child;
+
+		public Node()
+		{
+		}
+
+		Node(final int depth, final int maxDepth)
+		{
+			this.depth = depth;
+			this.label = "level-" + depth; //$NON-NLS-1$
+
+			if (depth < maxDepth)
+			{
+				this.leaf = new Node(maxDepth + 1, maxDepth);
+				this.child = new Node(depth + 1, maxDepth);
+			}
+		}
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return new SporeBuilder(Node.class)
+					.append(depth)
+					.append(label)
+					.append(leaf)
+					.append(child);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			final SporeParser parser = new SporeParser(spore);
+
+			depth = parser.nextInt();
+			label = parser.nextAsString();
+			leaf = parser.parseNextSporeAsSporable(Node.class);
+			child = parser.parseNextSporeAsSporable(Node.class);
+
+			return this;
+		}
+
+	}
+
+
+	@Sporable(version = "1", uniqueIdentifier = "bench.Item")
+	public static final class Item implements ISporable
+	{
+
+		long id;
+		String sku;
+		double price;
+		int quantity;
+
+		public Item()
+		{
+		}
+
+		Item(final int seed)
+		{
+			this.id = seed;
+			this.sku = "SKU-" + seed % 5000; //$NON-NLS-1$
+			this.price = seed % 1000 / 4.0;
+			this.quantity = seed % 50;
+		}
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return new SporeBuilder(Item.class)
+					.append(id)
+					.append(sku)
+					.append(price)
+					.append(quantity);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			final SporeParser parser = new SporeParser(spore);
+
+			id = parser.nextLong();
+			sku = parser.nextAsString();
+			price = parser.nextDouble();
+			quantity = parser.nextInt();
+
+			return this;
+		}
+
+	}
+
+
+	@Sporable(version = "1", uniqueIdentifier = "bench.Batch")
+	public static final class Batch implements ISporable
+	{
+
+		String name;
+		List<Item> items;
+
+		public Batch()
+		{
+		}
+
+		Batch(final String name, final List<Item> items)
+		{
+			this.name = name;
+			this.items = items;
+		}
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return new SporeBuilder(Batch.class)
+					.append(name)
+					.appendAsCollection(items);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			final SporeParser parser = new SporeParser(spore);
+
+			name = parser.nextAsString();
+			items = parser.nextAsList(itemSpore -> (Item) new Item().populateFromSpore(itemSpore));
+
+			return this;
+		}
+
+	}
+
+
+	@Sporable(version = "1", uniqueIdentifier = "bench.Catalog")
+	public static final class Catalog implements ISporable
+	{
+
+		String name;
+		Map<String, Long> prices;
+
+		public Catalog()
+		{
+		}
+
+		Catalog(final String name, final Map<String, Long> prices)
+		{
+			this.name = name;
+			this.prices = prices;
+		}
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return new SporeBuilder(Catalog.class)
+					.append(name)
+					.appendAsMap(prices, Spore::from, Spore::from);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			final SporeParser parser = new SporeParser(spore);
+
+			name = parser.nextAsString();
+			prices = parser.nextAsMap(Spore::toString, priceSpore -> Long.valueOf(priceSpore.toString()), Maps::newLinkedHashMapWithExpectedSize);
+
+			return this;
+		}
+
+	}
+
+
+	public interface Shape extends ISporable
+	{
+	}
+
+
+	@Sporable(version = "1", uniqueIdentifier = "bench.Circle")
+	public static final class Circle implements Shape
+	{
+
+		double x;
+		double y;
+		double radius;
+
+		public Circle()
+		{
+		}
+
+		Circle(final int seed)
+		{
+			this.x = seed;
+			this.y = -seed;
+			this.radius = 1 + seed % 10;
+		}
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return new SporeBuilder(Circle.class).append(x).append(y).append(radius);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			final SporeParser parser = new SporeParser(spore);
+
+			x = parser.nextDouble();
+			y = parser.nextDouble();
+			radius = parser.nextDouble();
+
+			return this;
+		}
+
+	}
+
+
+	@Sporable(version = "1", uniqueIdentifier = "bench.Square")
+	public static final class Square implements Shape
+	{
+
+		double x;
+		double y;
+		double side;
+		String fill;
+
+		public Square()
+		{
+		}
+
+		Square(final int seed)
+		{
+			this.x = seed;
+			this.y = seed * 2;
+			this.side = 1 + seed % 7;
+			this.fill = seed % 2 == 0 ? "red" : "blue"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return new SporeBuilder(Square.class).append(x).append(y).append(side).append(fill);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			final SporeParser parser = new SporeParser(spore);
+
+			x = parser.nextDouble();
+			y = parser.nextDouble();
+			side = parser.nextDouble();
+			fill = parser.nextAsString();
+
+			return this;
+		}
+
+	}
+
+
+	/**
+	 * The shapes are found by the unique identifier in their spore
+	 */
+	@Sporable(version = "1", uniqueIdentifier = "bench.Drawing")
+	public static final class Drawing implements ISporable
+	{
+
+		List<Shape> shapes;
+
+		public Drawing()
+		{
+		}
+
+		Drawing(final List<Shape> shapes)
+		{
+			this.shapes = shapes;
+		}
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return new SporeBuilder(Drawing.class).appendAsCollection(shapes);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			shapes = new SporeParser(spore).nextAsList(shapeSpore -> shapeSpore.<Shape>toInstance());
+			return this;
+		}
+
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.ggrec.spore.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ggrec.spore.Spore;
+import com.ggrec.spore.Spore.ISporable;
+import com.ggrec.spore.SporeBinaryCodec;
+import com.ggrec.spore.SporeLengthPrefixedCodec;
+
+/**
+ * ggrec, 2017-11-20: From the sporable to the frozen spore. The spores cache their frozen form, so each operation assembles
+ *                    the spore again, like the application does.
+ *
+ * @author ggrec
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class FreezeBenchmark
+{
+
+	@Param({ "WIDE_RECORD", "DEEP_NESTING", "LARGE_COLLECTION", "MAP", "POLYMORPHIC_LIST" })
+	SporeCorpus corpus;
+
+	private ISporable sporable;
+
+	private StringBuilder out;
+
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		sporable = corpus.create();
+		out = new StringBuilder(sporable.assembleSpore().build().toString().length());
+	}
+
+
+	/**
+	 * SporeBuilder.build only, nothing is frozen
+	 */
+	@Benchmark
+	public Spore build()
+	{
+		return sporable.assembleSpore().build();
+	}
+
+
+	/**
+	 * CompositeSpore.toString
+	 */
+	@Benchmark
+	public String freeze()
+	{
+		return sporable.assembleSpore().build().toString();
+	}
+
+
+	/**
+	 * Straight into the output, without the string of the whole spore
+	 */
+	@Benchmark
+	public int freezeTo() throws IOException
+	{
+		out.setLength(0);
+		sporable.assembleSpore().freezeTo(out);
+		return out.length();
+	}
+
+
+	@Benchmark
+	public String freeze_LengthPrefixed()
+	{
+		return SporeLengthPrefixedCodec.toFrozenSpore(sporable.assembleSpore().build());
+	}
+
+
+	@Benchmark
+	public byte[] freeze_Binary()
+	{
+		return SporeBinaryCodec.toBytes(sporable.assembleSpore().build());
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.ggrec.spore.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.ggrec.spore.Spore;
+import com.ggrec.spore.SporeBuilder;
+import com.ggrec.spore.SporeParallelism;
+import com.ggrec.spore.SporeParser;
+import com.ggrec.spore.benchmarks.CorpusModel.Item;
+
+/**
+ * ggrec, 2017-11-20: One big collection, frozen and unfrozen on one thread, then split among the workers of a pool with
+ *                    {@link SporeParallelism}. The threshold is 0, so the small sizes show what splitting costs.
+ *
+ * @author ggrec
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ParallelCollectionBenchmark
+{
+
+	@Param({ "1000", "100000" })
+	int size;
+
+	@Param({ "4" })
+	int parallelism;
+
+	private List<Item> items;
+
+	private Spore collectionSpore;
+
+	private ForkJoinPool pool;
+
+	private SporeParallelism sporeParallelism;
+
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		items = SporeCorpus.items(size);
+		collectionSpore = Spore.fromFrozenSpore(new SporeBuilder().appendAsCollection(items).build().toString());
+
+		pool = new ForkJoinPool(parallelism);
+		sporeParallelism = SporeParallelism.on(pool).withThreshold(0);
+	}
+
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		pool.shutdown();
+	}
+
+
+	@Benchmark
+	public List<Item> nextAsList()
+	{
+		return new SporeParser(collectionSpore).nextAsList(ParallelCollectionBenchmark::unfreeze);
+	}
+
+
+	@Benchmark
+	public List<Item> nextAsList_Parallel()
+	{
+		return new SporeParser(collectionSpore).nextAsList_Parallel(ParallelCollectionBenchmark::unfreeze, sporeParallelism);
+	}
+
+
+	@Benchmark
+	public Spore appendAsCollection()
+	{
+		return new SporeBuilder().appendAsCollection(items).build();
+	}
+
+
+	@Benchmark
+	public Spore appendAsCollection_Parallel()
+	{
+		return new SporeBuilder().appendAsCollection_Parallel(items, Spore::from, sporeParallelism).build();
+	}
+
+
+	private static Item unfreeze(final Spore itemSpore)
+	{
+		return (Item) new Item().populateFromSpore(itemSpore);
+	}
+
+}
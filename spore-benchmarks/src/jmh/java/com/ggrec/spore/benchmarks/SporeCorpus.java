@@ -0,0 +1,119 @@
+package com.ggrec.spore.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.ggrec.spore.SporableRegistry;
+import com.ggrec.spore.Spore.ISporable;
+import com.ggrec.spore.SporeScanConfig;
+import com.ggrec.spore.benchmarks.CorpusModel.Batch;
+import com.ggrec.spore.benchmarks.CorpusModel.Catalog;
+import com.ggrec.spore.benchmarks.CorpusModel.Circle;
+import com.ggrec.spore.benchmarks.CorpusModel.Drawing;
+import com.ggrec.spore.benchmarks.CorpusModel.Item;
+import com.ggrec.spore.benchmarks.CorpusModel.Node;
+import com.ggrec.spore.benchmarks.CorpusModel.Shape;
+import com.ggrec.spore.benchmarks.CorpusModel.Square;
+import com.ggrec.spore.benchmarks.CorpusModel.WideRecord;
+
+/**
+ * ggrec, 2017-11-20: The synthetic workloads which the benchmarks freeze and thaw. Each one is a single sporable, which is
+ *                    unfrozen with {@link com.ggrec.spore.Spore#toInstance()}, so the unique identifier lookup is measured too.
+ *                    The data is the same on every run.
+ *
+ * @author ggrec
+ *
+ */
+public enum SporeCorpus
+{
+
+	/**
+	 * 22 fields of every kind
+	 */
+	WIDE_RECORD
+	{
+		@Override
+		public ISporable create()
+		{
+			return new WideRecord(42);
+		}
+	},
+
+	/**
+	 * 64 levels
+	 */
+	DEEP_NESTING
+	{
+		@Override
+		public ISporable create()
+		{
+			return new Node(0, 64);
+		}
+	},
+
+	/**
+	 * 10 000 small sporables
+	 */
+	LARGE_COLLECTION
+	{
+		@Override
+		public ISporable create()
+		{
+			return new Batch("batch", items(10_000)); //$NON-NLS-1$
+		}
+	},
+
+	/**
+	 * 10 000 entries
+	 */
+	MAP
+	{
+		@Override
+		public ISporable create()
+		{
+			final Map<String, Long> prices = new LinkedHashMap<>();
+			for (int i = 0; i < 10_000; i++)
+				prices.put("SKU-" + i, 100L * i); //$NON-NLS-1$
+
+			return new Catalog("catalog", prices); //$NON-NLS-1$
+		}
+	},
+
+	/**
+	 * 1 000 shapes of two classes, each found by its unique identifier
+	 */
+	POLYMORPHIC_LIST
+	{
+		@Override
+		public ISporable create()
+		{
+			final List<Shape> shapes = IntStream.range(0, 1_000)
+					.mapToObj(i -> i % 2 == 0 ? new Circle(i) : new Square(i))
+					.collect(Collectors.toList());
+
+			return new Drawing(shapes);
+		}
+	}
+
+	;
+
+	static
+	{
+		// Only the corpus classes, the classpath isn't scanned during the measurements
+		SporableRegistry.configure(SporeScanConfig.defaults().registeredOnly());
+		SporableRegistry.register(WideRecord.class, Node.class, Item.class, Batch.class, Catalog.class, Circle.class, Square.class, Drawing.class);
+	}
+
+
+	public abstract ISporable create();
+
+
+	static List<Item> items(final int count)
+	{
+		return IntStream.range(0, count).mapToObj(Item::new).collect(Collectors.toList());
+	}
+
+}
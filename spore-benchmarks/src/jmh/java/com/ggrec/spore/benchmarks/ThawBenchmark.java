@@ -0,0 +1,91 @@
+package com.ggrec.spore.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ggrec.spore.Spore;
+import com.ggrec.spore.Spore.ISporable;
+import com.ggrec.spore.SporeBinaryCodec;
+import com.ggrec.spore.SporeLengthPrefixedCodec;
+
+/**
+ * ggrec, 2017-11-20: From the frozen spore back to the sporable. The toInstance benchmarks include the SporeParser reads
+ *                    in populateFromSpore, and finding the class by its unique identifier.
+ *
+ * @author ggrec
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ThawBenchmark
+{
+
+	@Param({ "WIDE_RECORD", "DEEP_NESTING", "LARGE_COLLECTION", "MAP", "POLYMORPHIC_LIST" })
+	SporeCorpus corpus;
+
+	String frozenSpore;
+
+	String frozenSpore_LengthPrefixed;
+
+	byte[] frozenSpore_Binary;
+
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		final Spore spore = corpus.create().assembleSpore().build();
+
+		frozenSpore = spore.toString();
+		frozenSpore_LengthPrefixed = SporeLengthPrefixedCodec.toFrozenSpore(spore);
+		frozenSpore_Binary = SporeBinaryCodec.toBytes(spore);
+	}
+
+
+	/**
+	 * The spore tree only
+	 */
+	@Benchmark
+	public Spore fromFrozenSpore()
+	{
+		return Spore.fromFrozenSpore(frozenSpore);
+	}
+
+
+	@Benchmark
+	public ISporable toInstance()
+	{
+		return Spore.fromFrozenSpore(frozenSpore).toInstance();
+	}
+
+
+	@Benchmark
+	public ISporable toInstance_Lazy()
+	{
+		return Spore.fromFrozenSpore_Lazy(frozenSpore).toInstance();
+	}
+
+
+	@Benchmark
+	public ISporable toInstance_LengthPrefixed()
+	{
+		return Spore.fromFrozenSpore(frozenSpore_LengthPrefixed).toInstance();
+	}
+
+
+	@Benchmark
+	public ISporable toInstance_Binary()
+	{
+		return SporeBinaryCodec.fromBytes(frozenSpore_Binary).toInstance();
+	}
+
+}
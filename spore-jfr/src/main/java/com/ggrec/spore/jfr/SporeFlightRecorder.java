@@ -0,0 +1,209 @@
+package com.ggrec.spore.jfr;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.time.Duration;
+
+import com.ggrec.spore.SporeMetrics;
+import com.ggrec.spore.SporeScanConfig;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * ggrec, 2017-11-21: A {@link SporeMetrics.Listener} which commits Flight Recorder events, so the spore work shows up in
+ *                    the recordings next to the GC pauses and the locks. Only the unusual things are recorded: the thaws
+ *                    slower than the threshold, the registry lookups which weren't remembered, and the classpath scans.
+ *
+ *                    SporeMetrics.install(new SporeFlightRecorder(Duration.ofMillis(5)));
+ *
+ *                    The events are enabled by default, and cost nothing when no recording is running.
+ *
+ * @author ggrec
+ *
+ */
+public final class SporeFlightRecorder implements SporeMetrics.Listener
+{
+
+	// ==================== 1. Static Fields ========================
+
+	static final String CATEGORY = "Spore"; //$NON-NLS-1$
+
+	static final String PHASE_PARSE = "parse"; //$NON-NLS-1$
+	static final String PHASE_INSTANTIATE = "instantiate"; //$NON-NLS-1$
+	static final String PHASE_POPULATE = "populate"; //$NON-NLS-1$
+
+
+	// ====================== 2. Instance Fields =============================
+
+	final private long slowThawNanos;
+
+
+	// ==================== 4. Constructors ====================
+
+	/**
+	 * @param slowThawThreshold the thaws which take at least this long are recorded
+	 */
+	public SporeFlightRecorder(final Duration slowThawThreshold)
+	{
+		checkArgument(!checkNotNull(slowThawThreshold).isNegative(), "Invalid threshold %s", slowThawThreshold); //$NON-NLS-1$
+		this.slowThawNanos = slowThawThreshold.toNanos();
+	}
+
+
+	// ==================== 6. Action Methods ====================
+
+	@Override
+	public void thawed(final int chars, final long nanos)
+	{
+		if (nanos >= slowThawNanos)
+			commitSlowThaw(PHASE_PARSE, null, chars, nanos);
+	}
+
+
+	@Override
+	public void instantiated(final String uniqueIdentifier, final long nanos)
+	{
+		if (nanos >= slowThawNanos)
+			commitSlowThaw(PHASE_INSTANTIATE, uniqueIdentifier, -1, nanos);
+	}
+
+
+	@Override
+	public void populated(final String uniqueIdentifier, final long nanos)
+	{
+		if (nanos >= slowThawNanos)
+			commitSlowThaw(PHASE_POPULATE, uniqueIdentifier, -1, nanos);
+	}
+
+
+	@Override
+	public void registryMissed(final String uniqueIdentifier, final Class<?> found, final long nanos)
+	{
+		final RegistryMissEvent event = new RegistryMissEvent();
+
+		if (!event.isEnabled())
+			return;
+
+		event.uniqueIdentifier = uniqueIdentifier;
+		event.found = found;
+		event.elapsed = nanos;
+		event.commit();
+	}
+
+
+	@Override
+	public void scanned(final SporeScanConfig scanConfig, final int classes, final long nanos)
+	{
+		final ClasspathScanEvent event = new ClasspathScanEvent();
+
+		if (!event.isEnabled())
+			return;
+
+		event.scanConfig = scanConfig.toString();
+		event.classes = classes;
+		event.elapsed = nanos;
+		event.commit();
+	}
+
+
+	private static void commitSlowThaw(final String phase, final String uniqueIdentifier, final int chars, final long nanos)
+	{
+		final SlowThawEvent event = new SlowThawEvent();
+
+		if (!event.isEnabled())
+			return;
+
+		event.phase = phase;
+		event.uniqueIdentifier = uniqueIdentifier;
+		event.chars = chars;
+		event.elapsed = nanos;
+		event.commit();
+	}
+
+
+	// ==================== 7. Getters & Setters ====================
+
+	public Duration slowThawThreshold()
+	{
+		return Duration.ofNanos(slowThawNanos);
+	}
+
+
+	// =======================================================
+	// 			 19. Inline Classes
+	// =======================================================
+
+	/**
+	 * The listener is told after the work is done, so the time is a field instead of the duration of the event
+	 */
+	@Name("com.ggrec.spore.SlowThaw")
+	@Label("Slow Spore Thaw")
+	@Category(CATEGORY)
+	@Description("Unfreezing, instantiating or populating a sporable took longer than the threshold")
+	static final class SlowThawEvent extends Event
+	{
+
+		@Label("Phase")
+		String phase;
+
+		@Label("Unique Identifier")
+		String uniqueIdentifier;
+
+		@Label("Characters")
+		@Description("Size of the frozen spore, -1 if not known")
+		int chars;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+
+	}
+
+
+	@Name("com.ggrec.spore.RegistryMiss")
+	@Label("Spore Registry Miss")
+	@Category(CATEGORY)
+	@Description("A sporable class lookup which wasn't remembered yet")
+	static final class RegistryMissEvent extends Event
+	{
+
+		@Label("Unique Identifier")
+		String uniqueIdentifier;
+
+		@Label("Found")
+		@Description("NULL if there's no such class")
+		Class<?> found;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+
+	}
+
+
+	@Name("com.ggrec.spore.ClasspathScan")
+	@Label("Spore Classpath Scan")
+	@Category(CATEGORY)
+	@Description("The classpath was scanned for the sporable classes")
+	static final class ClasspathScanEvent extends Event
+	{
+
+		@Label("Scan Configuration")
+		String scanConfig;
+
+		@Label("Classes")
+		int classes;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+
+	}
+
+}
@@ -0,0 +1,391 @@
+package com.ggrec.spore.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * ggrec, 2017-11-06: Generates the freezing and unfreezing code of the classes annotated with @Spore.AutoSporable, so they don't
+ *                    have to write it by hand. For a class Foo, the generated Foo_Spore has:
+ *
+ *                    <pre>
+ *                    public static SporeBuilder assembleSpore(final Foo sporable)
+ *                    public static Foo populateFromSpore(final Foo sporable, final Spore spore)
+ *                    </pre>
+ *
+ *                    The fields are frozen in their declaration order, through the fastest API for their type: the primitive
+ *                    overloads, the codecs for enums and the java.time / java.util value types, and the sporable classes by
+ *                    their own assembleSpore.
+ *
+ * ggrec, 2017-11-17: int[], long[] and double[] fields are packed, see SporeBuilder#appendIntArray
+ *
+ * ggrec, 2017-11-22: The fields of the superclasses come first. The types which can't be unfrozen are compile errors,
+ *                    instead of failing when the spore is unfrozen. Sporable fields are found by the unique identifier in
+ *                    their spore, unless their class is final, so the subclasses come back as themselves.
+ *
+ * @author ggrec
+ *
+ */
+@SupportedAnnotationTypes(AutoSporableProcessor.AUTO_SPORABLE_ANNOTATION)
+public final class AutoSporableProcessor extends AbstractProcessor
+{
+
+	// ==================== 1. Static Fields ========================
+
+	/**
+	 * By name, so the processor doesn't depend on the framework
+	 */
+	static final String AUTO_SPORABLE_ANNOTATION = "com.ggrec.spore.Spore.AutoSporable"; //$NON-NLS-1$
+
+	private static final String SPORABLE_ANNOTATION = SporableIndexProcessor.SPORABLE_ANNOTATION;
+
+	private static final String ISPORABLE = "com.ggrec.spore.Spore.ISporable"; //$NON-NLS-1$
+
+	private static final String GENERATED_SUFFIX = "_Spore"; //$NON-NLS-1$
+
+	/**
+	 * Always have a codec, see SporeCodecs
+	 */
+	private static final String[] CODEC_TYPES = { "java.util.UUID", "java.time.LocalDate", "java.time.Instant", "java.util.Locale" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+
+	// ==================== 6. Action Methods ====================
+
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv)
+	{
+		for (final TypeElement annotation : annotations)
+			for (final Element element : roundEnv.getElementsAnnotatedWith(annotation))
+				if (element.getKind() == ElementKind.CLASS)
+					generate((TypeElement) element);
+				else
+					error(element, "@AutoSporable is only supported on classes"); //$NON-NLS-1$
+
+		return true;
+	}
+
+
+	private void generate(final TypeElement sporableType)
+	{
+		if (!isValidType(sporableType))
+			return;
+
+		final String packageName = processingEnv.getElementUtils().getPackageOf(sporableType).getQualifiedName().toString();
+		final String generatedName = generatedSimpleName(sporableType);
+		final String sporableName = sporableType.getQualifiedName().toString();
+
+		final StringBuilder assemble = new StringBuilder();
+		final StringBuilder populate = new StringBuilder();
+
+		final Set<String> fieldNames = new HashSet<>();
+
+		for (final TypeElement type : withSuperclasses(sporableType))
+			for (final VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements()))
+			{
+				if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.TRANSIENT))
+					continue;
+
+				if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL))
+				{
+					error(field, "The fields of an @AutoSporable class and of its superclasses must not be private nor final. Make it transient to leave it out."); //$NON-NLS-1$
+					return;
+				}
+
+				if (type != sporableType && !field.getModifiers().contains(Modifier.PUBLIC) && !processingEnv.getElementUtils().getPackageOf(type).equals(processingEnv.getElementUtils().getPackageOf(sporableType)))
+				{
+					error(field, MessageFormat.format("Field {0} of the superclass isn''t visible from the package of {1}. Make it public or transient.", field.getSimpleName(), sporableType.getSimpleName())); //$NON-NLS-1$
+					return;
+				}
+
+				if (!fieldNames.add(field.getSimpleName().toString()))
+				{
+					error(field, MessageFormat.format("Field {0} hides a field of a superclass", field.getSimpleName())); //$NON-NLS-1$
+					return;
+				}
+
+				if (!appendFieldCode(field, assemble, populate))
+					return;
+			}
+
+		final StringBuilder source = new StringBuilder();
+
+		if (!packageName.isEmpty())
+			source.append("package ").append(packageName).append(";\n\n"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		source.append("/**\n") //$NON-NLS-1$
+		.append(" * Generated by ").append(AutoSporableProcessor.class.getName()).append(" from {@link ").append(sporableName).append("}. Don't edit.\n") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		.append(" */\n") //$NON-NLS-1$
+		.append("public final class ").append(generatedName).append("\n{\n\n") //$NON-NLS-1$ //$NON-NLS-2$
+
+		.append("\tpublic static com.ggrec.spore.SporeBuilder assembleSpore(final ").append(sporableName).append(" sporable)\n\t{\n") //$NON-NLS-1$ //$NON-NLS-2$
+		.append("\t\tfinal com.ggrec.spore.SporeBuilder sporeB = new com.ggrec.spore.SporeBuilder(").append(sporableName).append(".class);\n\n") //$NON-NLS-1$ //$NON-NLS-2$
+		.append(assemble)
+		.append("\n\t\treturn sporeB;\n\t}\n\n\n") //$NON-NLS-1$
+
+		.append("\tpublic static ").append(sporableName).append(" populateFromSpore(final ").append(sporableName).append(" sporable, final com.ggrec.spore.Spore spore)\n\t{\n") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		.append("\t\tfinal com.ggrec.spore.SporeParser parser = new com.ggrec.spore.SporeParser(spore);\n\n") //$NON-NLS-1$
+		.append(populate)
+		.append("\n\t\treturn sporable;\n\t}\n\n\n") //$NON-NLS-1$
+
+		.append("\tprivate ").append(generatedName).append("()\n\t{\n\t}\n\n}\n"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		try (Writer writer = processingEnv.getFiler().createSourceFile((packageName.isEmpty() ? "" : packageName + '.') + generatedName, sporableType).openWriter()) //$NON-NLS-1$
+		{
+			writer.write(source.toString());
+		}
+		catch (final IOException ex)
+		{
+			error(sporableType, "Could not write " + generatedName + ": " + ex.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+
+	/**
+	 * @return the class and its superclasses, without Object, the topmost first
+	 */
+	private static Deque<TypeElement> withSuperclasses(final TypeElement sporableType)
+	{
+		final Deque<TypeElement> types = new ArrayDeque<>();
+
+		for (TypeElement type = sporableType; type != null && !Object.class.getName().equals(type.getQualifiedName().toString()); )
+		{
+			types.addFirst(type);
+			type = type.getSuperclass().getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) type.getSuperclass()).asElement() : null;
+		}
+
+		return types;
+	}
+
+
+	private boolean isValidType(final TypeElement sporableType)
+	{
+		final boolean hasSporable = sporableType.getAnnotationMirrors().stream()
+				.anyMatch(annotation -> SPORABLE_ANNOTATION.equals(((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString()));
+
+		if (!hasSporable)
+		{
+			error(sporableType, "@AutoSporable classes must also have the @Sporable annotation"); //$NON-NLS-1$
+			return false;
+		}
+
+		if (!isSporable(sporableType.asType()))
+		{
+			error(sporableType, "@AutoSporable classes must implement ISporable"); //$NON-NLS-1$
+			return false;
+		}
+
+		for (Element enclosing = sporableType; !(enclosing instanceof PackageElement); enclosing = enclosing.getEnclosingElement())
+			if (enclosing.getModifiers().contains(Modifier.PRIVATE))
+			{
+				error(sporableType, "@AutoSporable classes must not be private, the generated class is next to them"); //$NON-NLS-1$
+				return false;
+			}
+
+		return true;
+	}
+
+
+	/**
+	 * @return false if the type of the field isn't supported. The error is already reported.
+	 */
+	private boolean appendFieldCode(final VariableElement field, final StringBuilder assemble, final StringBuilder populate)
+	{
+		final String name = "sporable." + field.getSimpleName(); //$NON-NLS-1$
+		final TypeMirror type = field.asType();
+
+		// Spores frozen by an older version may not have the fields which were added later
+		populate.append("\t\tif (!parser.hasNext())\n\t\t\treturn sporable;\n"); //$NON-NLS-1$
+
+		if (type.getKind().isPrimitive())
+		{
+			assemble.append("\t\tsporeB.append(").append(name).append(");\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			populate.append("\t\t").append(name).append(" = ").append(primitiveRead(type.getKind())).append(";\n\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			return true;
+		}
+
+		// ggrec, 2017-11-17: int[], long[] and double[] are packed into one spore
+		final String packedArray = packedArray(type);
+		if (packedArray != null)
+		{
+			assemble.append("\t\tsporeB.append").append(packedArray).append("Array(").append(name).append(");\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			populate.append("\t\t").append(name).append(" = parser.nextAs").append(packedArray).append("Array();\n\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			return true;
+		}
+
+		if (type.getKind() != TypeKind.DECLARED || !((DeclaredType) type).getTypeArguments().isEmpty())
+		{
+			error(field, MessageFormat.format("Fields of type {0} aren''t supported by @AutoSporable. Write assembleSpore and populateFromSpore by hand.", type)); //$NON-NLS-1$
+			return false;
+		}
+
+		final String typeName = processingEnv.getTypeUtils().erasure(type).toString();
+		final TypeMirror unboxed = unboxed(type);
+
+		if (unboxed != null)
+		{
+			// Boxed primitives, frozen and unfrozen by the primitive API
+			assemble.append("\t\tif (").append(name).append(" == null)\n\t\t\tsporeB.appendNullPayload();\n\t\telse\n\t\t\tsporeB.append(") //$NON-NLS-1$ //$NON-NLS-2$
+			.append(name).append('.').append(unboxed.toString()).append("Value());\n"); //$NON-NLS-1$
+
+			populate.append("\t\tif (parser.nextIsNull())\n\t\t{\n\t\t\tparser.nextAsSpore();\n\t\t\t").append(name).append(" = null;\n\t\t}\n\t\telse\n\t\t\t") //$NON-NLS-1$ //$NON-NLS-2$
+			.append(name).append(" = ").append(primitiveRead(unboxed.getKind())).append(";\n\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		else if (String.class.getName().equals(typeName))
+		{
+			assemble.append("\t\tsporeB.append(").append(name).append(");\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			populate.append("\t\t").append(name).append(" = parser.nextAsString();\n\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		else if (hasCodec(type))
+		{
+			assemble.append("\t\tif (").append(name).append(" == null)\n\t\t\tsporeB.appendNullPayload();\n\t\telse\n\t\t\tsporeB.append(com.ggrec.spore.SporeCodecs.forClass(") //$NON-NLS-1$ //$NON-NLS-2$
+			.append(typeName).append(".class).freeze(").append(name).append("));\n"); //$NON-NLS-1$ //$NON-NLS-2$
+
+			populate.append("\t\t").append(name).append(" = parser.nextAs(").append(typeName).append(".class);\n\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+		else if (isSporable(type))
+		{
+			assemble.append("\t\tif (").append(name).append(" == null)\n\t\t\tsporeB.appendNullPayload();\n\t\telse\n\t\t\tsporeB.append(") //$NON-NLS-1$ //$NON-NLS-2$
+			.append(name).append(".assembleSpore());\n"); //$NON-NLS-1$
+
+			// The value may be a subclass, which is found by the unique identifier in the spore. Only final classes can't be.
+			final boolean isFinal = ((DeclaredType) type).asElement().getKind() == ElementKind.CLASS && ((DeclaredType) type).asElement().getModifiers().contains(Modifier.FINAL);
+
+			populate.append("\t\t").append(name).append(" = ") //$NON-NLS-1$ //$NON-NLS-2$
+			.append(isFinal ? "parser.parseNextSporeAsSporable(" + typeName + ".class);\n\n" : "parser.nextAs_FromSpore_Automatic();\n\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+		else
+		{
+			// SporeBuilder#append would freeze it with toString, which nothing unfreezes
+			error(field, MessageFormat.format("Fields of type {0} aren''t supported by @AutoSporable. Write assembleSpore and populateFromSpore by hand, or make it transient.", type)); //$NON-NLS-1$
+			return false;
+		}
+
+		return true;
+	}
+
+
+	private static String primitiveRead(final TypeKind kind)
+	{
+		switch (kind)
+		{
+			case INT:		return "parser.nextInt()"; //$NON-NLS-1$
+			case LONG:		return "parser.nextLong()"; //$NON-NLS-1$
+			case DOUBLE:	return "parser.nextDouble()"; //$NON-NLS-1$
+			case BOOLEAN:	return "parser.nextBoolean()"; //$NON-NLS-1$
+			case SHORT:		return "(short) parser.nextInt()"; //$NON-NLS-1$
+			case BYTE:		return "(byte) parser.nextInt()"; //$NON-NLS-1$
+			case FLOAT:		return "Float.parseFloat(parser.nextAsString())"; //$NON-NLS-1$
+			case CHAR:		return "parser.nextAsString().charAt(0)"; //$NON-NLS-1$
+			default:		throw new IllegalArgumentException(kind.toString());
+		}
+	}
+
+
+	/**
+	 * @return NULL if the type isn't an array which can be packed
+	 */
+	private static String packedArray(final TypeMirror type)
+	{
+		if (type.getKind() != TypeKind.ARRAY)
+			return null;
+
+		switch (((ArrayType) type).getComponentType().getKind())
+		{
+			case INT:		return "Int"; //$NON-NLS-1$
+			case LONG:		return "Long"; //$NON-NLS-1$
+			case DOUBLE:	return "Double"; //$NON-NLS-1$
+			default:		return null;
+		}
+	}
+
+
+	/**
+	 * @return NULL if the type isn't a boxed primitive
+	 */
+	private TypeMirror unboxed(final TypeMirror type)
+	{
+		try
+		{
+			return processingEnv.getTypeUtils().unboxedType(type);
+		}
+		catch (final IllegalArgumentException ex)
+		{
+			return null;
+		}
+	}
+
+
+	private boolean hasCodec(final TypeMirror type)
+	{
+		if (((DeclaredType) type).asElement().getKind() == ElementKind.ENUM)
+			return true;
+
+		final String typeName = processingEnv.getTypeUtils().erasure(type).toString();
+
+		for (final String codecType : CODEC_TYPES)
+			if (codecType.equals(typeName))
+				return true;
+
+		return false;
+	}
+
+
+	private boolean isSporable(final TypeMirror type)
+	{
+		final TypeElement sporableInterface = processingEnv.getElementUtils().getTypeElement(ISPORABLE);
+		return sporableInterface != null && processingEnv.getTypeUtils().isAssignable(type, sporableInterface.asType());
+	}
+
+
+	/**
+	 * Outer.Inner gives Outer_Inner_Spore
+	 */
+	private static String generatedSimpleName(final TypeElement sporableType)
+	{
+		String name = sporableType.getSimpleName().toString();
+
+		for (Element enclosing = sporableType.getEnclosingElement(); !(enclosing instanceof PackageElement); enclosing = enclosing.getEnclosingElement())
+			name = enclosing.getSimpleName() + "_" + name; //$NON-NLS-1$
+
+		return name + GENERATED_SUFFIX;
+	}
+
+
+	private void error(final Element element, final String message)
+	{
+		processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.ggrec.spore.processor;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * ggrec, 2017-10-26: Writes down every class annotated with @Spore.Sporable at compile time, so the runtime doesn't have to
+ *                    scan the classpath to find them. Each compiled module gets its own index resource, one line per class:
+ *
+ *                    <pre>uniqueIdentifier TAB version TAB binary class name</pre>
+ *
+ *                    Put this on the annotation processor path of every module which has sporable classes. As soon as one
+ *                    index is found on the classpath, the runtime stops scanning, so a module without an index is invisible.
+ *
+ * ggrec, 2017-11-22: Unless the scan configuration has the classpath fallback, then the lookups which the index can't
+ *                    answer scan the classpath once. See com.ggrec.spore.SporeScanConfig#withClasspathFallback().
+ *
+ * @author ggrec
+ *
+ */
+@SupportedAnnotationTypes(SporableIndexProcessor.SPORABLE_ANNOTATION)
+public final class SporableIndexProcessor extends AbstractProcessor
+{
+
+	// ==================== 1. Static Fields ========================
+
+	/**
+	 * By name, so the processor doesn't depend on the framework
+	 */
+	static final String SPORABLE_ANNOTATION = "com.ggrec.spore.Spore.Sporable"; //$NON-NLS-1$
+
+	/**
+	 * Must be the same as com.ggrec.spore.SporableIndex#INDEX_RESOURCE
+	 */
+	static final String INDEX_RESOURCE = "META-INF/spore/sporables.index"; //$NON-NLS-1$
+
+	private static final String NO_VERSION = "NO_VERSION"; //$NON-NLS-1$
+	private static final String NO_UNIQUE_IDENTIFIER = "NO_UNIQUE_IDENTIFIER"; //$NON-NLS-1$
+
+
+	// ====================== 2. Instance Fields =============================
+
+	/**
+	 * Binary class name to index line, sorted so the index is the same on every build
+	 */
+	final private Map<String, String> indexLines = new TreeMap<>();
+
+
+	// ==================== 6. Action Methods ====================
+
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv)
+	{
+		if (roundEnv.processingOver())
+		{
+			if (!indexLines.isEmpty())
+				writeIndex();
+
+			return false;
+		}
+
+		for (final TypeElement annotation : annotations)
+			for (final Element element : roundEnv.getElementsAnnotatedWith(annotation))
+				if (element.getKind().isClass())
+					addToIndex((TypeElement) element);
+
+		// Other processors may want the annotation as well
+		return false;
+	}
+
+
+	private void addToIndex(final TypeElement sporableType)
+	{
+		String uniqueIdentifier = NO_UNIQUE_IDENTIFIER;
+		String version = NO_VERSION;
+
+		for (final AnnotationMirror annotation : sporableType.getAnnotationMirrors())
+		{
+			if (!SPORABLE_ANNOTATION.equals(((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString()))
+				continue;
+
+			for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> attribute : processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet())
+			{
+				final String attributeName = attribute.getKey().getSimpleName().toString();
+
+				if ("uniqueIdentifier".equals(attributeName)) //$NON-NLS-1$
+					uniqueIdentifier = String.valueOf(attribute.getValue().getValue());
+
+				else if ("version".equals(attributeName)) //$NON-NLS-1$
+					version = String.valueOf(attribute.getValue().getValue());
+			}
+		}
+
+		final String binaryName = processingEnv.getElementUtils().getBinaryName(sporableType).toString();
+
+		indexLines.put(binaryName, uniqueIdentifier + '\t' + version + '\t' + binaryName);
+	}
+
+
+	private void writeIndex()
+	{
+		try
+		{
+			final FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE); //$NON-NLS-1$
+
+			try (Writer writer = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8))
+			{
+				for (final String line : indexLines.values())
+					writer.write(line + '\n');
+			}
+		}
+		catch (final IOException ex)
+		{
+			processingEnv.getMessager().printMessage(Kind.ERROR, "Could not write the sporable index: " + ex.getMessage()); //$NON-NLS-1$
+		}
+	}
+
+}
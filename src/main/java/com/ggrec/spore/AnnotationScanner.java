@@ -1,12 +1,11 @@
 package com.ggrec.spore;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.lang.annotation.Annotation;
-import java.net.URL;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -16,7 +15,6 @@ import org.reflections.Reflections;
 import org.reflections.scanners.Scanner;
 import org.reflections.scanners.SubTypesScanner;
 import org.reflections.scanners.TypeAnnotationsScanner;
-import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
 
 import com.google.common.base.Predicates;
@@ -33,7 +31,10 @@ final public class AnnotationScanner<A extends Annotation>
 
 	// ====================== 2. Instance Fields =============================
 
-	private Collection<URL> urlsToScan = ClasspathHelper.forPackage("com.ansis"); //$NON-NLS-1$
+	/**
+	 * ggrec, 2017-10-30: Was always ClasspathHelper.forPackage("com.ansis"). That is still the default.
+	 */
+	private SporeScanConfig scanConfig = SporeScanConfig.defaults();
 
 	private Class<A> byAnnotation;
 
@@ -97,11 +98,18 @@ final public class AnnotationScanner<A extends Annotation>
 				.setScanners(createScanners())
 
 				// Location to search for the files. You can also use ClasspathHelper.forPackage("com.ansis")
-				.addUrls(urlsToScan);
+				.addUrls(scanConfig.urlsToScan());
+
+		if (!scanConfig.classLoaders().isEmpty())
+			config.addClassLoaders(scanConfig.classLoaders());
+
+		final Predicate<String> byPackage = scanConfig.inputFilter();
 
 		if (!Strings.isNullOrEmpty(byJavaFilename))
 			// Search only for files which have this keyword in their name
-			config.filterInputsBy(input -> input.contains(byJavaFilename)); 
+			config.filterInputsBy(input -> byPackage.test(input) && input.contains(byJavaFilename)); 
+		else
+			config.filterInputsBy(byPackage::test);
 
 		if (useParallelSearch)
 			config.useParallelExecutor();
@@ -124,15 +132,9 @@ final public class AnnotationScanner<A extends Annotation>
 	}
 
 
-	public synchronized Optional<Class<?>> scan()
+	public Optional<Class<?>> scan()
 	{
-		final Reflections reflections = new Reflections(createConfig());
-
-		final Set<Class<?>> result = getTypes(reflections);
-
-		final ImmutableSet<Class<?>> filteredResult = result.parallelStream()
-				.filter(filterAnnotations())
-				.collect(ImmutableSet.toImmutableSet());
+		final ImmutableSet<Class<?>> filteredResult = scanAll();
 
 		if (filteredResult.isEmpty())
 			return Optional.empty();
@@ -145,6 +147,50 @@ final public class AnnotationScanner<A extends Annotation>
 	}
 
 
+	/**
+	 * ggrec, 2017-10-23: All the classes which pass the filters, instead of only one. Used to build {@link SporableRegistry}.
+	 */
+	public ImmutableSet<Class<?>> scanAll()
+	{
+		// ggrec, 2017-10-26: The compile-time index makes the scan unnecessary
+		return scanIndex().orElseGet(this::scanClasspath);
+	}
+
+
+	/**
+	 * ggrec, 2017-11-22: Only the compile-time index, with the same filters as the scan
+	 *
+	 * @return empty if there's no index on the classpath. The classes of the modules which were compiled without the
+	 *         processor aren't in it.
+	 */
+	Optional<ImmutableSet<Class<?>>> scanIndex()
+	{
+		final Optional<ImmutableSet<Class<?>>> indexed = byAnnotation == Spore.Sporable.class ? SporableIndex.load(scanConfig.classLoaders()) : Optional.empty();
+
+		return indexed.map(classes -> classes.stream()
+				.filter(scanConfig::includes)
+				.filter(clazz -> bySubClassOfSuper == null || (clazz != bySubClassOfSuper && bySubClassOfSuper.isAssignableFrom(clazz)))
+				.filter(clazz -> Strings.isNullOrEmpty(byJavaFilename) || clazz.getName().replace('.', '/').contains(byJavaFilename))
+				.filter(filterAnnotations())
+				.collect(ImmutableSet.toImmutableSet()));
+	}
+
+
+	/**
+	 * ggrec, 2017-11-22: Always scans, even if there's a compile-time index
+	 */
+	ImmutableSet<Class<?>> scanClasspath()
+	{
+		final Reflections reflections = new Reflections(createConfig());
+
+		final Set<Class<?>> result = getTypes(reflections);
+
+		return result.parallelStream()
+				.filter(filterAnnotations())
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+
 	// ==================== 7. Getters & Setters ====================
 
 	private final AnnotationScanner<A> setByAnnotation(final Class<A> byAnnotation)
@@ -175,6 +221,13 @@ final public class AnnotationScanner<A extends Annotation>
 	}
 
 
+	public AnnotationScanner<A> setScanConfig(final SporeScanConfig scanConfig)
+	{
+		this.scanConfig = checkNotNull(scanConfig);
+		return this;
+	}
+
+
 	private Predicate<Class<?>> filterAnnotations()
 	{
 		return clazz -> {
@@ -0,0 +1,142 @@
+package com.ggrec.spore;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * ggrec, 2017-10-26: Reads the index resources which com.ggrec.spore.processor.SporableIndexProcessor writes at compile
+ *                    time. When at least one index is on the classpath, the classes are loaded straight from it and the
+ *                    classpath isn't scanned at all.
+ *
+ * ggrec, 2017-11-22: The classes which aren't in any index are still found by scanning, see {@link SporableRegistry}.
+ *                    The lines which don't make sense anymore are skipped with a warning, instead of breaking every lookup.
+ *
+ * @author ggrec
+ *
+ */
+final class SporableIndex
+{
+
+	// ==================== 1. Static Fields ========================
+
+	/**
+	 * Must be the same as com.ggrec.spore.processor.SporableIndexProcessor#INDEX_RESOURCE
+	 */
+	static final String INDEX_RESOURCE = "META-INF/spore/sporables.index"; //$NON-NLS-1$
+
+	private static final Splitter COLUMN_SPLITTER = Splitter.on('\t');
+
+	private static final Logger LOGGER = Logger.getLogger(SporableIndex.class.getName());
+
+
+	// ==================== 3. Static Methods ====================
+
+	/**
+	 * @return the indexed classes, or empty if no module on the classpath was compiled with the annotation processor
+	 */
+	static Optional<ImmutableSet<Class<?>>> load()
+	{
+		final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		return load(contextClassLoader != null ? contextClassLoader : SporableIndex.class.getClassLoader());
+	}
+
+
+	/**
+	 * @return the classes indexed in any of the class loaders, or the default one if there are none
+	 */
+	static Optional<ImmutableSet<Class<?>>> load(final Collection<ClassLoader> classLoaders)
+	{
+		if (classLoaders.isEmpty())
+			return load();
+
+		final ImmutableSet.Builder<Class<?>> classesB = ImmutableSet.builder();
+		boolean anyIndex = false;
+
+		for (final ClassLoader classLoader : classLoaders)
+		{
+			final Optional<ImmutableSet<Class<?>>> indexed = load(classLoader);
+			indexed.ifPresent(classesB::addAll);
+			anyIndex |= indexed.isPresent();
+		}
+
+		return anyIndex ? Optional.of(classesB.build()) : Optional.empty();
+	}
+
+
+	static Optional<ImmutableSet<Class<?>>> load(final ClassLoader classLoader)
+	{
+		try
+		{
+			final Enumeration<URL> indexes = classLoader.getResources(INDEX_RESOURCE);
+
+			if (!indexes.hasMoreElements())
+				return Optional.empty();
+
+			final ImmutableSet.Builder<Class<?>> classesB = ImmutableSet.builder();
+
+			while (indexes.hasMoreElements())
+				readIndex(indexes.nextElement(), classLoader, classesB);
+
+			return Optional.of(classesB.build());
+		}
+		catch (final IOException ex)
+		{
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+
+	private static void readIndex(final URL index, final ClassLoader classLoader, final ImmutableSet.Builder<Class<?>> classesB) throws IOException
+	{
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), UTF_8)))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.trim().isEmpty())
+					continue;
+
+				// uniqueIdentifier, version, binary class name
+				final List<String> columns = COLUMN_SPLITTER.splitToList(line);
+				if (columns.size() != 3)
+				{
+					LOGGER.warning(MessageFormat.format("Skipping malformed line \"{0}\" in the sporable index {1}", line, index)); //$NON-NLS-1$
+					continue;
+				}
+
+				final String className = columns.get(2);
+
+				try
+				{
+					classesB.add(Class.forName(className, false, classLoader));
+				}
+				catch (final ClassNotFoundException | LinkageError ex)
+				{
+					LOGGER.warning(MessageFormat.format("Skipping class {0}, which is in the sporable index {1} but can''t be loaded: {2}", className, index, ex)); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+
+	// ==================== 4. Constructors ====================
+
+	private SporableIndex()
+	{
+	}
+
+}
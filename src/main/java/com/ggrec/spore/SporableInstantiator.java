@@ -0,0 +1,135 @@
+package com.ggrec.spore;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.text.MessageFormat;
+import java.util.function.Function;
+
+import com.ggrec.spore.Spore.ISporable;
+
+/**
+ * ggrec, 2017-10-27: Creates the {@link ISporable} instances when unfreezing. The constructor is looked up only once per class,
+ *                    then called through a {@link MethodHandle}, so there's no reflective access check on every instance.
+ *
+ *                    The no-argument constructor is preferred. Classes without one can have a constructor which takes the
+ *                    version of the spore, like the instantiator of {@link SporeParser#parseNextSporeAsSporable(Function)}.
+ *
+ * @author ggrec
+ *
+ */
+public final class SporableInstantiator<W extends ISporable> implements Function<String, W>
+{
+
+	// ==================== 1. Static Fields ========================
+
+	private static final ClassValue<SporableInstantiator<?>> instantiators = new ClassValue<SporableInstantiator<?>>()
+	{
+		@Override
+		protected SporableInstantiator<?> computeValue(final Class<?> sporableClass)
+		{
+			return new SporableInstantiator<>(sporableClass);
+		}
+	};
+
+
+	// ====================== 2. Instance Fields =============================
+
+	final private Class<?> sporableClass;
+
+	/**
+	 * Either ()ISporable or (String)ISporable
+	 */
+	final private MethodHandle constructor;
+
+	final private boolean takesVersion;
+
+
+	// ==================== 3. Static Methods ====================
+
+	/**
+	 * @throws IllegalArgumentException if the class doesn't implement {@link ISporable} or has no usable constructor
+	 */
+	@SuppressWarnings("unchecked")
+	public static <W extends ISporable> SporableInstantiator<W> of(final Class<? extends W> sporableClass)
+	{
+		return (SporableInstantiator<W>) instantiators.get(sporableClass);
+	}
+
+
+	// ==================== 4. Constructors ====================
+
+	private SporableInstantiator(final Class<?> sporableClass)
+	{
+		if (!ISporable.class.isAssignableFrom(sporableClass))
+			throw new IllegalArgumentException(MessageFormat.format("Class of type {0} does not implement the ISporable interface", sporableClass.getSimpleName())); //$NON-NLS-1$
+
+		if (Modifier.isAbstract(sporableClass.getModifiers()))
+			throw new IllegalArgumentException(MessageFormat.format("Could not instantiate class of type {0}", sporableClass.getSimpleName())); //$NON-NLS-1$
+
+		this.sporableClass = sporableClass;
+
+		Constructor<?> sporableConstructor = findConstructor(sporableClass);
+		this.takesVersion = sporableConstructor == null;
+
+		if (takesVersion)
+			sporableConstructor = findConstructor(sporableClass, String.class);
+
+		if (sporableConstructor == null)
+			throw new IllegalArgumentException(MessageFormat.format("Class of type {0} needs a constructor with no arguments, or with the version as a String", sporableClass.getSimpleName())); //$NON-NLS-1$
+
+		try
+		{
+			sporableConstructor.setAccessible(true);
+
+			this.constructor = MethodHandles.lookup()
+					.unreflectConstructor(sporableConstructor)
+					.asType(takesVersion ? methodType(ISporable.class, String.class) : methodType(ISporable.class));
+		}
+		catch (final IllegalAccessException | SecurityException ex)
+		{
+			throw new IllegalArgumentException(MessageFormat.format("Could not instantiate class of type {0}", sporableClass.getSimpleName()), ex); //$NON-NLS-1$
+		}
+	}
+
+
+	private static Constructor<?> findConstructor(final Class<?> sporableClass, final Class<?>... parameterTypes)
+	{
+		try
+		{
+			return sporableClass.getDeclaredConstructor(parameterTypes);
+		}
+		catch (final NoSuchMethodException ex)
+		{
+			return null;
+		}
+	}
+
+
+	// ==================== 6. Action Methods ====================
+
+	/**
+	 * @param version of the spore which is unfrozen. Ignored if the class has a no-argument constructor.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public W apply(final String version)
+	{
+		try
+		{
+			return (W) (takesVersion ? (ISporable) constructor.invokeExact(version) : (ISporable) constructor.invokeExact());
+		}
+		catch (final RuntimeException | Error ex)
+		{
+			throw ex;
+		}
+		catch (final Throwable ex)
+		{
+			throw new IllegalArgumentException(MessageFormat.format("Could not instantiate class of type {0}", sporableClass.getSimpleName()), ex); //$NON-NLS-1$
+		}
+	}
+
+}
@@ -0,0 +1,390 @@
+package com.ggrec.spore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.text.MessageFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import com.ggrec.spore.Spore.Sporable;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * ggrec, 2017-10-23: Process wide index of the {@link Sporable} classes, by their unique identifier. The classpath is scanned
+ *                    only once, when the first class is looked up (or earlier, with {@link #warmUp()}). Every lookup is then
+ *                    remembered, including the ones which found nothing, so {@link Spore#toInstance()} doesn't touch the
+ *                    classpath again and doesn't wait on any lock.
+ *
+ * ggrec, 2017-11-22: The lookups which found nothing are remembered in a bounded cache. The unique identifiers come from the
+ *                    spores, so anyone could fill the memory with made up ones. The oldest are forgotten, and looked up again.
+ *
+ * ggrec, 2017-10-26: If the modules were compiled with the spore-processor, the index comes from {@link SporableIndex}
+ *                    instead of a classpath scan.
+ *
+ * ggrec, 2017-10-30: What is scanned can be configured, see {@link SporeScanConfig}. Classes can also be registered by hand.
+ *
+ * ggrec, 2017-11-21: The scans and the lookups which weren't remembered are reported to {@link SporeMetrics}
+ *
+ * ggrec, 2017-11-22: A compile-time index only knows the modules which were compiled with the spore-processor. With
+ *                    {@link SporeScanConfig#withClasspathFallback()}, the lookups which it can't answer fall back to a
+ *                    classpath scan, which is done once per configuration.
+ *
+ * @author ggrec
+ *
+ */
+public final class SporableRegistry
+{
+
+	// ==================== 1. Static Fields ========================
+
+	/**
+	 * One index per scan configuration. Usually there's only the global one.
+	 */
+	private static final ConcurrentMap<SporeScanConfig, CompletableFuture<Index>> indexes = new ConcurrentHashMap<>();
+
+	/**
+	 * ggrec, 2017-11-22: The classpath scans for the lookups which the compile-time index couldn't answer
+	 */
+	private static final ConcurrentMap<SporeScanConfig, CompletableFuture<Index>> classpathScans = new ConcurrentHashMap<>();
+
+	private static final Logger LOGGER = Logger.getLogger(SporableRegistry.class.getName());
+
+	/**
+	 * ggrec, 2017-11-22: How many of the lookups which found nothing are remembered, per state
+	 */
+	private static final int MAX_REMEMBERED_MISSES = 10_000;
+
+	/**
+	 * Replaced as a whole when the configuration or the registered classes change, so a lookup which was running meanwhile
+	 * can only remember its result in the old state
+	 */
+	private static final AtomicReference<State> state = new AtomicReference<>(new State(SporeScanConfig.defaults(), ImmutableListMultimap.of()));
+
+
+	// ==================== 3. Static Methods ====================
+
+	/**
+	 * Starts scanning the classpath in the background, so the first {@link Spore#toInstance()} doesn't have to.
+	 * Lookups which arrive during the scan wait for it, instead of scanning again.
+	 *
+	 * ggrec, 2017-11-22: Including the fallback scan, if the configuration has one
+	 */
+	public static CompletableFuture<Void> warmUp()
+	{
+		final SporeScanConfig scanConfig = state.get().scanConfig;
+
+		if (scanConfig.isRegisteredOnly())
+			return CompletableFuture.completedFuture(null);
+
+		return index(indexes, scanConfig, true)
+				.thenCompose(index -> index.isCompileTimeIndex && scanConfig.hasClasspathFallback() ? index(classpathScans, scanConfig, true) : CompletableFuture.completedFuture(index))
+				.thenApply(ignored -> null);
+	}
+
+
+	/**
+	 * ggrec, 2017-10-30: Used by every lookup which doesn't bring its own configuration
+	 */
+	public static void configure(final SporeScanConfig scanConfig)
+	{
+		checkNotNull(scanConfig);
+		state.updateAndGet(oldState -> new State(scanConfig, oldState.registered));
+	}
+
+
+	/**
+	 * ggrec, 2017-10-30: These classes are always found, whatever the scan configuration. With
+	 *                    {@link SporeScanConfig#registeredOnly()} they are the only ones.
+	 */
+	public static void register(final Class<?>... sporableClasses)
+	{
+		final ImmutableListMultimap.Builder<String, Class<?>> newlyRegisteredB = ImmutableListMultimap.builder();
+
+		for (final Class<?> sporableClass : sporableClasses)
+		{
+			final Sporable sporable = sporableClass.getAnnotation(Sporable.class);
+			checkArgument(sporable != null, "Class %s has no %s annotation", sporableClass.getSimpleName(), Sporable.class.getSimpleName()); //$NON-NLS-1$
+
+			newlyRegisteredB.put(sporable.uniqueIdentifier(), sporableClass);
+		}
+
+		final ImmutableListMultimap<String, Class<?>> newlyRegistered = newlyRegisteredB.build();
+
+		state.updateAndGet(oldState -> {
+
+			final ImmutableListMultimap.Builder<String, Class<?>> registeredB = ImmutableListMultimap.<String, Class<?>>builder().putAll(oldState.registered);
+			newlyRegistered.forEach((uniqueIdentifier, clazz) -> {
+				if (!oldState.registered.containsEntry(uniqueIdentifier, clazz))
+					registeredB.put(uniqueIdentifier, clazz);
+			});
+
+			return new State(oldState.scanConfig, registeredB.build());
+		});
+	}
+
+
+	/**
+	 * @return the class annotated with {@link Sporable} which has this unique identifier. If the super class is given, only its
+	 *         subclasses are considered. If the java filename is given, only the classes with that keyword in their file name.
+	 *
+	 * @throws IllegalArgumentException if several classes match
+	 */
+	public static Optional<Class<?>> find(final String uniqueIdentifier, final Class<?> superClass, final String byJavaFilename)
+	{
+		return find(uniqueIdentifier, superClass, byJavaFilename, null);
+	}
+
+
+	/**
+	 * @param scanConfig NULL for the global one, see {@link #configure(SporeScanConfig)}
+	 */
+	public static Optional<Class<?>> find(final String uniqueIdentifier, final Class<?> superClass, final String byJavaFilename, final SporeScanConfig scanConfig)
+	{
+		if (uniqueIdentifier == null)
+			return Optional.empty();
+
+		final State currentState = state.get();
+		final Lookup lookup = new Lookup(uniqueIdentifier, superClass, Strings.emptyToNull(byJavaFilename), scanConfig != null ? scanConfig : currentState.scanConfig);
+
+		// The usual case, lock-free
+		final Optional<Class<?>> result = currentState.lookups.get(lookup);
+		if (result != null)
+			return result;
+
+		if (currentState.misses.getIfPresent(lookup) != null)
+			return Optional.empty();
+
+		// ggrec, 2017-11-21: See SporeMetrics
+		final SporeMetrics.Listener metrics = SporeMetrics.listener;
+		final long start = metrics != null ? System.nanoTime() : 0;
+
+		final ImmutableList<Class<?>> registered = currentState.registered.get(uniqueIdentifier);
+		final Index index = lookup.scanConfig.isRegisteredOnly() ? null : index(indexes, lookup.scanConfig);
+
+		Optional<Class<?>> newResult = lookup.in(index == null ? registered : concat(registered, index.classes.get(uniqueIdentifier)));
+
+		if (!newResult.isPresent() && index != null && index.isCompileTimeIndex && lookup.scanConfig.hasClasspathFallback())
+		{
+			newResult = lookup.in(concat(registered, index(classpathScans, lookup.scanConfig).classes.get(uniqueIdentifier)));
+
+			newResult.ifPresent(clazz -> LOGGER.warning(MessageFormat.format("Class {0} isn''t in the sporable index, it was found by scanning the classpath. Compile its module with the spore-processor.", clazz.getName()))); //$NON-NLS-1$
+		}
+
+		if (metrics != null)
+			metrics.registryMissed(uniqueIdentifier, newResult.orElse(null), System.nanoTime() - start);
+
+		if (!newResult.isPresent())
+		{
+			currentState.misses.put(lookup, Boolean.TRUE);
+			return newResult;
+		}
+
+		final Optional<Class<?>> oldResult = currentState.lookups.putIfAbsent(lookup, newResult);
+		return oldResult == null ? newResult : oldResult;
+	}
+
+
+	private static ImmutableList<Class<?>> concat(final ImmutableList<Class<?>> registered, final ImmutableList<Class<?>> found)
+	{
+		return ImmutableList.<Class<?>>builder().addAll(registered).addAll(found).build();
+	}
+
+
+	private static Index index(final ConcurrentMap<SporeScanConfig, CompletableFuture<Index>> futures, final SporeScanConfig scanConfig)
+	{
+		try
+		{
+			return index(futures, scanConfig, false).join();
+		}
+		catch (final CompletionException ex)
+		{
+			if (ex.getCause() instanceof RuntimeException)
+				throw (RuntimeException) ex.getCause();
+
+			throw ex;
+		}
+	}
+
+
+	/**
+	 * @param futures either {@link #indexes} (the compile-time index if there is one, otherwise a scan) or {@link #classpathScans}
+	 */
+	private static CompletableFuture<Index> index(final ConcurrentMap<SporeScanConfig, CompletableFuture<Index>> futures, final SporeScanConfig scanConfig, final boolean inBackground)
+	{
+		final CompletableFuture<Index> existingIndex = futures.get(scanConfig);
+		if (existingIndex != null)
+			return existingIndex;
+
+		final CompletableFuture<Index> newIndex = new CompletableFuture<>();
+		final CompletableFuture<Index> racingIndex = futures.putIfAbsent(scanConfig, newIndex);
+		if (racingIndex != null)
+			return racingIndex;
+
+		if (inBackground)
+			ForkJoinPool.commonPool().execute(() -> buildIndex(futures, scanConfig, newIndex));
+		else
+			buildIndex(futures, scanConfig, newIndex);
+
+		return newIndex;
+	}
+
+
+	private static void buildIndex(final ConcurrentMap<SporeScanConfig, CompletableFuture<Index>> futures, final SporeScanConfig scanConfig, final CompletableFuture<Index> newIndex)
+	{
+		try
+		{
+			final SporeMetrics.Listener metrics = SporeMetrics.listener;
+			final long start = metrics != null ? System.nanoTime() : 0;
+
+			final AnnotationScanner<Sporable> scanner = AnnotationScanner.forAnnotation(Sporable.class).setScanConfig(scanConfig);
+			final Optional<ImmutableSet<Class<?>>> indexed = futures == indexes ? scanner.scanIndex() : Optional.empty();
+
+			final ImmutableListMultimap.Builder<String, Class<?>> classesB = ImmutableListMultimap.builder();
+			indexed.orElseGet(scanner::scanClasspath).forEach(clazz -> classesB.put(clazz.getAnnotation(Sporable.class).uniqueIdentifier(), clazz));
+
+			final Index index = new Index(classesB.build(), indexed.isPresent());
+
+			if (metrics != null)
+				metrics.scanned(scanConfig, index.classes.size(), System.nanoTime() - start);
+
+			newIndex.complete(index);
+		}
+		catch (final RuntimeException | Error ex)
+		{
+			// Let the next lookup try again
+			futures.remove(scanConfig, newIndex);
+			newIndex.completeExceptionally(ex);
+		}
+	}
+
+
+	// ==================== 4. Constructors ====================
+
+	private SporableRegistry()
+	{
+	}
+
+
+	// =======================================================
+	// 			 19. Inline Classes
+	// =======================================================
+
+	private static final class Index
+	{
+
+		final private ImmutableListMultimap<String, Class<?>> classes;
+
+		/**
+		 * The compile-time index may not know every class
+		 */
+		final private boolean isCompileTimeIndex;
+
+
+		private Index(final ImmutableListMultimap<String, Class<?>> classes, final boolean isCompileTimeIndex)
+		{
+			this.classes = classes;
+			this.isCompileTimeIndex = isCompileTimeIndex;
+		}
+
+	}
+
+
+	private static final class State
+	{
+
+		final private SporeScanConfig scanConfig;
+
+		final private ImmutableListMultimap<String, Class<?>> registered;
+
+		final private ConcurrentMap<Lookup, Optional<Class<?>>> lookups = new ConcurrentHashMap<>();
+
+		/**
+		 * Bounded, see {@link SporableRegistry#MAX_REMEMBERED_MISSES}
+		 */
+		final private Cache<Lookup, Boolean> misses = CacheBuilder.newBuilder().maximumSize(MAX_REMEMBERED_MISSES).build();
+
+
+		private State(final SporeScanConfig scanConfig, final ImmutableListMultimap<String, Class<?>> registered)
+		{
+			this.scanConfig = scanConfig;
+			this.registered = registered;
+		}
+
+	}
+
+
+	private static final class Lookup
+	{
+
+		final private String uniqueIdentifier;
+
+		final private Class<?> superClass;
+
+		final private String byJavaFilename;
+
+		final private SporeScanConfig scanConfig;
+
+
+		private Lookup(final String uniqueIdentifier, final Class<?> superClass, final String byJavaFilename, final SporeScanConfig scanConfig)
+		{
+			this.uniqueIdentifier = uniqueIdentifier;
+			this.superClass = superClass;
+			this.byJavaFilename = byJavaFilename;
+			this.scanConfig = scanConfig;
+		}
+
+
+		/**
+		 * Same filters as {@link AnnotationScanner}
+		 */
+		private Optional<Class<?>> in(final ImmutableList<Class<?>> candidates)
+		{
+			final ImmutableList<Class<?>> result = candidates.stream()
+					.distinct()
+					.filter(clazz -> superClass == null || (clazz != superClass && superClass.isAssignableFrom(clazz)))
+					.filter(clazz -> byJavaFilename == null || clazz.getName().replace('.', '/').contains(byJavaFilename))
+					.collect(ImmutableList.toImmutableList());
+
+			if (result.size() > 1)
+				throw new IllegalArgumentException(MessageFormat.format("Found several identical {0} annotations after all the filtering", Sporable.class.getSimpleName())); //$NON-NLS-1$
+
+			return result.stream().findFirst();
+		}
+
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(uniqueIdentifier, superClass, byJavaFilename, scanConfig);
+		}
+
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (this == obj)
+				return true;
+
+			if (!(obj instanceof Lookup))
+				return false;
+
+			final Lookup other = (Lookup) obj;
+			return uniqueIdentifier.equals(other.uniqueIdentifier) && superClass == other.superClass && Objects.equals(byJavaFilename, other.byJavaFilename) && scanConfig.equals(other.scanConfig);
+		}
+
+	}
+
+}
@@ -1,24 +1,32 @@
 package com.ggrec.spore;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.lang.annotation.ElementType.TYPE;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
-import static java.util.stream.Collectors.joining;
+import static java.lang.annotation.RetentionPolicy.SOURCE;
 
+import java.io.IOException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import com.ggrec.spore.SporeLengthPrefixedCodec.LengthPrefixedCompositeSpore;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 
 /**
  * ggrec, 2016-12-16: Implements Iterable because you move through the enclosed spores in a sequential fashion
@@ -46,9 +54,9 @@ abstract public class Spore implements Iterable<Spore>
 	static final String NO_VERSION = "NO_VERSION"; //$NON-NLS-1$
 	static final String NO_UNIQUE_IDENTIFIER = "NO_UNIQUE_IDENTIFIER"; //$NON-NLS-1$
 
-	private static final String SPORE_PREFIX = "{|"; //$NON-NLS-1$
-	private static final String SPORE_SUFFIX = "|}"; //$NON-NLS-1$
-	private static final String SPORE_MEMBER_SEPARATOR = "_|_"; //$NON-NLS-1$
+	static final String SPORE_PREFIX = "{|"; //$NON-NLS-1$
+	static final String SPORE_SUFFIX = "|}"; //$NON-NLS-1$
+	static final String SPORE_MEMBER_SEPARATOR = "_|_"; //$NON-NLS-1$
 
 
 	// ==================== 3. Static Methods ====================
@@ -72,10 +80,10 @@ abstract public class Spore implements Iterable<Spore>
 				.orElseGet(() -> object_O
 
 						// 2. If the object is not a sporable instance, we create an atomic spore of its toString
-						.map(obj -> new AtomicSpore(obj.toString()))
+						.map(obj -> AtomicSpore.of(obj.toString()))
 
 						// 3. If all else fails, it means the object is actually NULL, so we create a NULL payload
-						.orElseGet(() -> new AtomicSpore(NULL_PAYLOAD))
+						.orElseGet(() -> AtomicSpore.NULL)
 
 						);
 	}
@@ -88,14 +96,43 @@ abstract public class Spore implements Iterable<Spore>
 
 
 	public static Spore fromFrozenSpore(final String frozenSpore)
+	{
+		// ggrec, 2017-11-21: See SporeMetrics
+		final SporeMetrics.Listener metrics = SporeMetrics.listener;
+		if (metrics == null || frozenSpore == null)
+			return thaw(frozenSpore);
+
+		final long start = System.nanoTime();
+		final Spore spore = thaw(frozenSpore);
+		metrics.thawed(frozenSpore.length(), System.nanoTime() - start);
+
+		return spore;
+	}
+
+
+	/**
+	 * Same as {@link #fromFrozenSpore(String)}, without reporting to {@link SporeMetrics}. Used for the spores which are
+	 * unfrozen while another one is.
+	 */
+	static Spore thaw(final String frozenSpore)
 	{
 		// If the frozen spore is NULL, or if it isn't a composite spore, then we use the simple atomic API
 		if (frozenSpore == null || (!frozenSpore.startsWith(SPORE_PREFIX) && !frozenSpore.endsWith(SPORE_SUFFIX)))
 			return from(frozenSpore);
 
+		// ggrec, 2017-11-09: Announced by its header, so both dialects can be stored side by side
+		if (SporeLengthPrefixedCodec.isLengthPrefixed(frozenSpore))
+			return SporeLengthPrefixedCodec.fromFrozenSpore(frozenSpore);
+
 		// Composite 
 		if (isStringASpore(frozenSpore))
 		{
+			// ggrec, 2017-10-02: Fast path, builds the whole tree in one go
+			final Spore spore = SporeTokenizer.tokenize(frozenSpore);
+			if (spore != null)
+				return spore;
+
+			// Malformed spores (ex. delimiters inside payloads) are still handled the old way
 			final String frozenSpore_NoLimits = trimSporeLimits(frozenSpore);
 
 			final ImmutableList<String> members = parseTopLevel(frozenSpore_NoLimits);
@@ -109,7 +146,7 @@ abstract public class Spore implements Iterable<Spore>
 				metadata = SporeMetadata.fromFrozenSpore(members.get(0));
 
 				enclosedSpores = members.subList(metadata == null ? 0 : 1, members.size()).stream()
-						.map(member -> fromFrozenSpore(member))
+						.map(member -> thaw(member))
 						.collect(toImmutableList());
 			}
 
@@ -121,6 +158,20 @@ abstract public class Spore implements Iterable<Spore>
 	}
 
 
+	/**
+	 * ggrec, 2017-10-05: Same as {@link #fromFrozenSpore(String)}, but the enclosed spores are only located when someone
+	 *                    iterates over them. Good for big spores, where you only read the first few fields with the parser.
+	 *                    The frozen spore is kept in memory for as long as any of the enclosed spores are.
+	 */
+	public static Spore fromFrozenSpore_Lazy(final String frozenSpore)
+	{
+		if (SporeLengthPrefixedCodec.isLengthPrefixed(frozenSpore))
+			return SporeLengthPrefixedCodec.fromFrozenSpore(frozenSpore);
+
+		return isStringASpore(frozenSpore) ? new LazyCompositeSpore(frozenSpore, 0, frozenSpore.length()) : fromFrozenSpore(frozenSpore);
+	}
+
+
 	private static String trimSporeLimits(final String frozenSpore)
 	{
 		return frozenSpore.substring(SPORE_PREFIX.length(), frozenSpore.length() - SPORE_SUFFIX.length());
@@ -138,7 +189,7 @@ abstract public class Spore implements Iterable<Spore>
 			if (parser.hasNext())
 			{
 				final Spore enclosedSpore = parser.nextAsSpore();
-				return enclosedSpore.isPayloadNull() || Objects.equals(enclosedSpore.toString(), EMPTY_COLLECTION_PAYLOAD);
+				return enclosedSpore.isPayloadNull() || enclosedSpore.isPayloadEmptyCollection();
 			}
 		}
 		
@@ -148,6 +199,9 @@ abstract public class Spore implements Iterable<Spore>
 
 	/**
 	 * ggrec, 2016-12-21: Stolen from SporeHelper, no idea how this works. 
+	 * 
+	 * ggrec, 2017-10-02: Now looks at the characters in place, instead of creating a substring for each of them.
+	 *                    Only used for spores which {@link SporeTokenizer} doesn't understand.
 	 */
 	private static ImmutableList<String> parseTopLevel(final String spore)
 	{
@@ -155,33 +209,31 @@ abstract public class Spore implements Iterable<Spore>
 		int lastSepIndex = 0;
 		int openedBraces = 0;
 		int closedBraces = 0;
-		int nextSepIndex;
+		boolean containsSeparator = false;
 
 		for (int i = 0; i < spore.length(); i++)
 		{
-			final String substring = spore.substring(i);
-
-			if (substring.startsWith(SPORE_PREFIX))
+			if (spore.startsWith(SPORE_PREFIX, i))
 				openedBraces++;
 
-			if (substring.startsWith(SPORE_SUFFIX))
+			if (spore.startsWith(SPORE_SUFFIX, i))
 				closedBraces++;
 
-			if (substring.startsWith(SPORE_MEMBER_SEPARATOR))
+			if (spore.startsWith(SPORE_MEMBER_SEPARATOR, i))
 			{
-				nextSepIndex = i;
+				containsSeparator = true;
 
 				if (openedBraces == closedBraces)
 				{
-					result.add(spore.substring(lastSepIndex, nextSepIndex));
-					lastSepIndex = nextSepIndex + SPORE_MEMBER_SEPARATOR.length();
+					result.add(spore.substring(lastSepIndex, i));
+					lastSepIndex = i + SPORE_MEMBER_SEPARATOR.length();
 					openedBraces = closedBraces = 0;
 					i = i + SPORE_MEMBER_SEPARATOR.length() - 1;
 				}
 			}
 		}
 
-		if (spore.contains(SPORE_MEMBER_SEPARATOR))
+		if (containsSeparator)
 			result.add(spore.substring(lastSepIndex, spore.length()));
 		else
 			result.add(spore);
@@ -206,6 +258,15 @@ abstract public class Spore implements Iterable<Spore>
 	 * This API gets the unique identifier from the spore metadata 
 	 */
 	public <T extends ISporable> T toInstance(final Class<? super T> superClass, final String byJavaFilename)
+	{
+		return toInstance(superClass, byJavaFilename, (SporeScanConfig) null);
+	}
+
+
+	/**
+	 * ggrec, 2017-10-30: Looks for the class with this scan configuration, instead of the global one
+	 */
+	public <T extends ISporable> T toInstance(final Class<? super T> superClass, final String byJavaFilename, final SporeScanConfig scanConfig)
 	{
 		
 		// --------------------- <Phase 1> -----------------------
@@ -222,68 +283,77 @@ abstract public class Spore implements Iterable<Spore>
 				"Unique Identifier is missing from the spore. The class which built the spore must have that attribute set in the @Sporable annotation"); //$NON-NLS-1$
 		
 		
-		return toInstance(uniqueIdentifier, superClass, byJavaFilename);
+		return toInstance(uniqueIdentifier, superClass, byJavaFilename, scanConfig);
 	}
 
 
 	/**
 	 * This instantiator is faster because it only searches throught the subclasses of the parameter 
 	 */
-	@SuppressWarnings("unchecked")
 	public <T extends ISporable> T toInstance(final String uniqueIdentifier, final Class<? super T> superClass, final String byJavaFilename)
+	{
+		return toInstance(uniqueIdentifier, superClass, byJavaFilename, null);
+	}
+
+
+	@SuppressWarnings("unchecked")
+	public <T extends ISporable> T toInstance(final String uniqueIdentifier, final Class<? super T> superClass, final String byJavaFilename, final SporeScanConfig scanConfig)
 	{
 
 		// --------------------- <Phase 6> -----------------------
 		// Finally populate the new instance of this Spore. If there are any errors inside
 
-		return (T) toInstance_WithoutPopulating(uniqueIdentifier, superClass, byJavaFilename).populateFromSpore(this);
+		final T instance = toInstance_WithoutPopulating(uniqueIdentifier, superClass, byJavaFilename, scanConfig);
+
+		// ggrec, 2017-11-21: See SporeMetrics
+		final SporeMetrics.Listener metrics = SporeMetrics.listener;
+		if (metrics == null)
+			return (T) instance.populateFromSpore(this);
+
+		final long start = System.nanoTime();
+		final T result = (T) instance.populateFromSpore(this);
+		metrics.populated(uniqueIdentifier, System.nanoTime() - start);
+
+		return result;
 	}
 	
 	
-	@SuppressWarnings("unchecked")
 	public <T extends ISporable> T toInstance_WithoutPopulating(final String uniqueIdentifier, final Class<? super T> superClass, final String byJavaFilename)
+	{
+		return toInstance_WithoutPopulating(uniqueIdentifier, superClass, byJavaFilename, null);
+	}
+
+
+	@SuppressWarnings("unchecked")
+	public <T extends ISporable> T toInstance_WithoutPopulating(final String uniqueIdentifier, final Class<? super T> superClass, final String byJavaFilename, final SporeScanConfig scanConfig)
 	{
 
 		// --------------------- <Phase 3> -----------------------
 		// Search for the class which has the Sporable annotation which has the uniqueIdentifier attribute set to the one which we extracted from the Spore
+		// ggrec, 2017-10-23: The classpath is scanned once per process, see SporableRegistry
 
-		final Class<?> clazz = AnnotationScanner.forAnnotationAndSuperClass(Sporable.class, superClass)
-				.setByJavaFilename(byJavaFilename)
-				.setAnnAttrFilter(ann -> Objects.equals(ann.uniqueIdentifier(), uniqueIdentifier))
-				.scan()
+		final Class<?> clazz = SporableRegistry.find(uniqueIdentifier, superClass, byJavaFilename, scanConfig)
 				.orElseThrow(() -> new IllegalArgumentException(MessageFormat.format("Could not find sporable class for identifier {0}", uniqueIdentifier))); //$NON-NLS-1$ 
 
 		
 		// --------------------- <Phase 4> -----------------------
 		// Try to create the new instance from the class that was found
-
-		Object newInstance = null;
-
-		try
-		{
-			newInstance = checkNotNull( clazz.newInstance() );
-		}
-		catch (InstantiationException | IllegalAccessException | NullPointerException ex)
-		{
-			throw new IllegalArgumentException(MessageFormat.format("Could not instantiate class of type {0}", clazz.getSimpleName()), ex);
-		}
-
+		// ggrec, 2017-10-27: The constructor is looked up once per class, see SporableInstantiator
 
 		// --------------------- <Phase 5> -----------------------
 		// That object which we found should be an ISporable instance, in order to populate it
 
-		T newSporableInstance = null;
+		final SporableInstantiator<T> instantiator = SporableInstantiator.of((Class<? extends T>) clazz);
 
-		try
-		{
-			newSporableInstance = checkNotNull( (T) newInstance );
-		}
-		catch (final ClassCastException | NullPointerException ex)
-		{
-			throw new IllegalArgumentException(MessageFormat.format("Class of type {0} does not implement the ISporable interface", clazz.getSimpleName()), ex);
-		}
+		final SporeMetrics.Listener metrics = SporeMetrics.listener;
+		if (metrics == null)
+			return instantiator.apply(version());
+
+		final long start = System.nanoTime();
+		final T instance = instantiator.apply(version());
+		metrics.instantiated(uniqueIdentifier, System.nanoTime() - start);
 
-		return newSporableInstance;
+		return instance;
 	}
 	
 
@@ -310,6 +380,57 @@ abstract public class Spore implements Iterable<Spore>
 	abstract public boolean isPayloadNull();
 
 
+	/**
+	 * ggrec, 2017-11-07: Only the atomic empty collection spore. Composite spores aren't serialized to find out.
+	 */
+	public boolean isPayloadEmptyCollection()
+	{
+		return false;
+	}
+
+
+	/**
+	 * ggrec, 2017-10-11: Writes the frozen spore straight into the output, which can be a {@link java.io.Writer}, a {@link StringBuilder}, etc.
+	 *                    The result is the same as {@link #toString()}, but the enclosed spores are written one by one, so
+	 *                    the whole frozen spore doesn't have to be in memory. Buffering is up to the caller.
+	 */
+	public void freezeTo(final Appendable out) throws IOException
+	{
+		out.append(toString());
+	}
+
+
+	/**
+	 * ggrec, 2017-11-10: The enclosed spore at this index, without the metadata. Constant time for the composite spores,
+	 *                    and the members before it aren't unfrozen.
+	 *
+	 * @throws IndexOutOfBoundsException if there is no such member
+	 */
+	public Spore memberAt(final int index)
+	{
+		return Iterables.get(this, index);
+	}
+
+
+	/**
+	 * The number of enclosed spores, without the metadata
+	 */
+	public int memberCount()
+	{
+		return Iterables.size(this);
+	}
+
+
+	/**
+	 * ggrec, 2017-11-22: Whether {@link #memberAt(int)} and {@link #memberCount()} are cheap. The default ones walk the
+	 *                    iterator, so {@link SporeParser} walks the others only once.
+	 */
+	boolean isIndexed()
+	{
+		return false;
+	}
+
+
 	// =======================================================
 	// 			 19. Inline Classes 
 	// =======================================================
@@ -330,9 +451,44 @@ abstract public class Spore implements Iterable<Spore>
 	}
 
 
-	private static final class AtomicSpore extends Spore
+	/**
+	 * ggrec, 2017-11-06: The spore-processor generates a ClassName_Spore class next to the annotated {@link Sporable} class, with the
+	 *                    assembleSpore and populateFromSpore code for its fields, in their declaration order. Static and transient
+	 *                    fields are left out, the others must not be private nor final. Delegate to it:
+	 *
+	 *                    <pre>
+	 *                    public SporeBuilder assembleSpore() { return ClassName_Spore.assembleSpore(this); }
+	 *                    public ISporable populateFromSpore(final Spore spore) { return ClassName_Spore.populateFromSpore(this, spore); }
+	 *                    </pre>
+	 *
+	 *                    Fields which are missing from the spore, because it was frozen by an older version with fewer fields,
+	 *                    keep their value.
+	 */
+	@Retention(SOURCE)
+	@Target(TYPE)
+	public @interface AutoSporable
 	{
+	}
+
+
+	static class AtomicSpore extends Spore
+	{
+
+		/**
+		 * ggrec, 2017-11-02: Shared, because they are immutable
+		 */
+		static final AtomicSpore TRUE = new AtomicSpore(Boolean.toString(true));
+		static final AtomicSpore FALSE = new AtomicSpore(Boolean.toString(false));
+
+		/**
+		 * ggrec, 2017-11-07: The only instances with these payloads, see {@link #of(String)}. Checked by identity.
+		 */
+		static final AtomicSpore NULL = new AtomicSpore(NULL_PAYLOAD);
+		static final AtomicSpore EMPTY_COLLECTION = new AtomicSpore(EMPTY_COLLECTION_PAYLOAD);
 
+		/**
+		 * NULL for the primitive spores, which format their value only when asked
+		 */
 		final private String payload;
 
 
@@ -342,6 +498,46 @@ abstract public class Spore implements Iterable<Spore>
 		}
 
 
+		static AtomicSpore of(final String payload)
+		{
+			return payload == null ? create(null) : of(payload, 0, payload.length());
+		}
+
+
+		/**
+		 * ggrec, 2017-11-08: The substring is only created if it isn't a sentinel, nor already in the {@link SporePayloadPool}
+		 */
+		static AtomicSpore of(final String source, final int start, final int end)
+		{
+			final int length = end - start;
+
+			if (length == NULL_PAYLOAD.length() && source.startsWith(NULL_PAYLOAD, start))
+				return NULL;
+
+			if (length == EMPTY_COLLECTION_PAYLOAD.length() && source.startsWith(EMPTY_COLLECTION_PAYLOAD, start))
+				return EMPTY_COLLECTION;
+
+			final SporePayloadPool pool = SporePayloadPool.installed();
+			if (pool != null)
+			{
+				final AtomicSpore pooled = pool.intern(source, start, end);
+				if (pooled != null)
+					return pooled;
+			}
+
+			return create(start == 0 && end == source.length() ? source : source.substring(start, end));
+		}
+
+
+		/**
+		 * Without looking at the sentinels and the pool
+		 */
+		static AtomicSpore create(final String payload)
+		{
+			return new AtomicSpore(payload);
+		}
+
+
 		@Override
 		public String toString()
 		{
@@ -349,10 +545,24 @@ abstract public class Spore implements Iterable<Spore>
 		}
 
 
+		@Override
+		public void freezeTo(final Appendable out) throws IOException
+		{
+			out.append(payload);
+		}
+
+
 		@Override
 		public boolean isPayloadNull()
 		{
-			return NULL_PAYLOAD.equals(payload);
+			return this == NULL;
+		}
+
+
+		@Override
+		public boolean isPayloadEmptyCollection()
+		{
+			return this == EMPTY_COLLECTION;
 		}
 
 
@@ -399,6 +609,106 @@ abstract public class Spore implements Iterable<Spore>
 	}
 
 
+	/**
+	 * ggrec, 2017-11-02: Keeps the number, and formats it only when the spore is frozen. Same payload as the boxed number would have.
+	 */
+	static final class LongSpore extends AtomicSpore
+	{
+
+		/**
+		 * ggrec, 2017-11-08: Small numbers are shared, like {@link Integer#valueOf(int)} does
+		 */
+		private static final LongSpore[] SMALL = new LongSpore[256];
+
+		static
+		{
+			for (int i = 0; i < SMALL.length; i++)
+				SMALL[i] = new LongSpore(i - 128);
+		}
+
+
+		final private long value;
+
+
+		private LongSpore(final long value)
+		{
+			super(null);
+			this.value = value;
+		}
+
+
+		static LongSpore of(final long value)
+		{
+			return value >= -128 && value < 128 ? SMALL[(int) value + 128] : new LongSpore(value);
+		}
+
+
+		long value()
+		{
+			return value;
+		}
+
+
+		@Override
+		public String toString()
+		{
+			return Long.toString(value);
+		}
+
+
+		@Override
+		public void freezeTo(final Appendable out) throws IOException
+		{
+			if (out instanceof StringBuilder)
+				((StringBuilder) out).append(value);
+			else
+				out.append(toString());
+		}
+
+	}
+
+
+	/**
+	 * ggrec, 2017-11-02: Same as {@link LongSpore}, for doubles
+	 */
+	static final class DoubleSpore extends AtomicSpore
+	{
+
+		final private double value;
+
+
+		DoubleSpore(final double value)
+		{
+			super(null);
+			this.value = value;
+		}
+
+
+		double value()
+		{
+			return value;
+		}
+
+
+		@Override
+		public String toString()
+		{
+			return Double.toString(value);
+		}
+
+
+		@Override
+		public void freezeTo(final Appendable out) throws IOException
+		{
+			if (out instanceof StringBuilder)
+				((StringBuilder) out).append(value);
+			else
+				out.append(toString());
+		}
+
+	}
+
+
 	final static class CompositeSpore extends Spore
 	{
 
@@ -406,6 +716,13 @@ abstract public class Spore implements Iterable<Spore>
 
 		final private SporeMetadata metadata;
 
+		private volatile String frozenSpore;
+
+		/**
+		 * NULL until {@link #checkTextForm(List)} needs it
+		 */
+		private volatile Boolean enclosesLengthPrefixed;
+
 
 		CompositeSpore(final SporeMetadata metadata, final ImmutableList<Spore> enclosedSpores)
 		{
@@ -438,15 +755,152 @@ abstract public class Spore implements Iterable<Spore>
 		}
 
 
+		/**
+		 * ggrec, 2017-10-09: The spore is immutable, so it's frozen only once. The enclosed composites are cached as well,
+		 *                    so a parent is built from the strings of its children, without walking the whole tree again.
+		 */
 		@Override
 		public String toString()
 		{
-			Stream<Spore> sporeStream = enclosedSpores.stream();
+			String result = frozenSpore;
+
+			if (result == null)
+				frozenSpore = result = freeze();
+
+			return result;
+		}
+
+
+		/**
+		 * ggrec, 2017-11-21: Only the outermost freeze is reported, see {@link SporeMetrics}
+		 */
+		private String freeze()
+		{
+			final SporeMetrics.Listener metrics = SporeMetrics.listener;
+			if (metrics == null || !SporeMetrics.enterFreeze())
+				return freezeNow();
+
+			try
+			{
+				final long start = System.nanoTime();
+				final String result = freezeNow();
+				metrics.frozen(uniqueIdentifier(), result.length(), System.nanoTime() - start);
+
+				return result;
+			}
+			finally
+			{
+				SporeMetrics.exitFreeze();
+			}
+		}
+
+
+		private String freezeNow()
+		{
+			final StringBuilder sb = new StringBuilder();
 
-			if (metadata() != null)
-				sporeStream = Stream.concat(Stream.of(metadata().assembleSpore().build()), sporeStream);
+			try
+			{
+				freezeTo(sb, metadata(), enclosedSpores, false);
+			}
+			catch (final IOException ex)
+			{
+				// StringBuilder doesn't throw
+				throw new AssertionError(ex);
+			}
 
-			return SPORE_PREFIX + sporeStream.map(Object::toString).collect(joining(SPORE_MEMBER_SEPARATOR)) + SPORE_SUFFIX;
+			return sb.toString();
+		}
+
+
+		@Override
+		public void freezeTo(final Appendable out) throws IOException
+		{
+			final String result = frozenSpore;
+
+			if (result != null)
+			{
+				out.append(result);
+				return;
+			}
+
+			checkTextForm(enclosedSpores);
+
+			if (SporeMetrics.listener == null)
+				freezeTo(out, metadata(), enclosedSpores, true);
+			else
+				SporeMetrics.reportFreeze(out, uniqueIdentifier(), counted -> freezeTo(counted, metadata(), enclosedSpores, true));
+		}
+
+
+		/**
+		 * Shared with {@link SporeBuilder#freezeTo(Appendable)}, which doesn't need to build the spore first.
+		 * 
+		 * @param streaming if true, the enclosed spores write themselves into the output. Otherwise their (cached) string is appended.
+		 */
+		static void freezeTo(final Appendable out, final SporeMetadata metadata, final List<Spore> enclosedSpores, final boolean streaming) throws IOException
+		{
+			out.append(SPORE_PREFIX);
+
+			if (metadata != null)
+			{
+				out.append(metadata.assembleSpore().build().toString());
+
+				if (!enclosedSpores.isEmpty())
+					out.append(SPORE_MEMBER_SEPARATOR);
+			}
+
+			for (int i = 0; i < enclosedSpores.size(); i++)
+			{
+				if (i > 0)
+					out.append(SPORE_MEMBER_SEPARATOR);
+
+				freezeMemberTo(out, enclosedSpores.get(i), streaming);
+			}
+
+			out.append(SPORE_SUFFIX);
+		}
+
+
+		/**
+		 * ggrec, 2017-11-22: Before anything is written, so a spore which can't be enclosed in this form doesn't leave half
+		 *                    of itself in the output. Only the branches with length prefixed spores are walked.
+		 *
+		 * @throws IllegalArgumentException see {@link LengthPrefixedCompositeSpore#checkTextForm()}
+		 */
+		static void checkTextForm(final List<Spore> enclosedSpores)
+		{
+			for (final Spore member : enclosedSpores)
+				if (member instanceof LengthPrefixedCompositeSpore)
+					((LengthPrefixedCompositeSpore) member).checkTextForm();
+				else if (member instanceof CompositeSpore && ((CompositeSpore) member).enclosesLengthPrefixed())
+					checkTextForm(((CompositeSpore) member).enclosedSpores);
+		}
+
+
+		private boolean enclosesLengthPrefixed()
+		{
+			Boolean result = enclosesLengthPrefixed;
+
+			if (result == null)
+				enclosesLengthPrefixed = result = enclosedSpores.stream().anyMatch(member -> member instanceof LengthPrefixedCompositeSpore
+						|| (member instanceof CompositeSpore && ((CompositeSpore) member).enclosesLengthPrefixed()));
+
+			return result;
+		}
+
+
+		static void freezeMemberTo(final Appendable out, final Spore member, final boolean streaming) throws IOException
+		{
+			// ggrec, 2017-11-22: They freeze to their own dialect, which can't be enclosed in this one
+			if (member instanceof LengthPrefixedCompositeSpore)
+				((LengthPrefixedCompositeSpore) member).freezeTo_Text(out);
+
+			// Atomic spores have nothing to remember, and the primitive ones format themselves straight into the output
+			else if (streaming || member instanceof AtomicSpore)
+				member.freezeTo(out);
+			else
+				out.append(member.toString());
 		}
 
 
@@ -457,6 +911,37 @@ abstract public class Spore implements Iterable<Spore>
 		}
 
 
+		/**
+		 * ggrec, 2017-11-13: Sized, and split by index, for the parallel streams
+		 */
+		@Override
+		public Spliterator<Spore> spliterator()
+		{
+			return enclosedSpores.spliterator();
+		}
+
+
+		@Override
+		public Spore memberAt(final int index)
+		{
+			return enclosedSpores.get(index);
+		}
+
+
+		@Override
+		public int memberCount()
+		{
+			return enclosedSpores.size();
+		}
+
+
+		@Override
+		boolean isIndexed()
+		{
+			return true;
+		}
+
+
 		@Override
 		public boolean isPayloadNull()
 		{
@@ -467,6 +952,287 @@ abstract public class Spore implements Iterable<Spore>
 	}
 
 
+	/**
+	 * A composite spore which is only an offset range in the frozen spore. The enclosed spores are located the first
+	 * time they're needed, and then kept.
+	 *
+	 * ggrec, 2017-11-22: Locating only records where the members are, see {@link LocatedCompositeSpore}
+	 */
+	final static class LazyCompositeSpore extends Spore
+	{
+
+		final private String frozenSpore;
+
+		final private int start;
+
+		final private int end;
+
+		private volatile Spore located;
+
+
+		LazyCompositeSpore(final String frozenSpore, final int start, final int end)
+		{
+			this.frozenSpore = frozenSpore;
+			this.start = start;
+			this.end = end;
+		}
+
+
+		private Spore located()
+		{
+			Spore result = located;
+
+			if (result == null)
+			{
+				final int[] offsets = SporeTokenizer.locate(frozenSpore, start, end);
+
+				// Malformed spores are left to the old parser. This can only happen for the outermost lazy spore,
+				// because the enclosed ones were already checked when their parent was located.
+				result = offsets == null ? Spore.thaw(toString()) : new LocatedCompositeSpore(frozenSpore, offsets);
+
+				located = result;
+			}
+
+			return result;
+		}
+
+
+		@Override
+		public SporeMetadata metadata()
+		{
+			return located().metadata();
+		}
+
+
+		@Override
+		public String version()
+		{
+			return located().version();
+		}
+
+
+		@Override
+		public String uniqueIdentifier()
+		{
+			return located().uniqueIdentifier();
+		}
+
+
+		@Override
+		public String toString()
+		{
+			return start == 0 && end == frozenSpore.length() ? frozenSpore : frozenSpore.substring(start, end);
+		}
+
+
+		@Override
+		public void freezeTo(final Appendable out) throws IOException
+		{
+			out.append(frozenSpore, start, end);
+		}
+
+
+		@Override
+		public Iterator<Spore> iterator()
+		{
+			return located().iterator();
+		}
+
+
+		@Override
+		public Spliterator<Spore> spliterator()
+		{
+			return located().spliterator();
+		}
+
+
+		@Override
+		public Spore memberAt(final int index)
+		{
+			return located().memberAt(index);
+		}
+
+
+		@Override
+		public int memberCount()
+		{
+			return located().memberCount();
+		}
+
+
+		@Override
+		boolean isIndexed()
+		{
+			return true;
+		}
+
+
+		@Override
+		public boolean isPayloadNull()
+		{
+			return false;
+		}
+
+	}
+
+
+	/**
+	 * What a {@link LazyCompositeSpore} is once located: the offsets of its members in the frozen spore. A member is
+	 * only created when it's returned, so skipping or counting the members creates nothing.
+	 */
+	final static class LocatedCompositeSpore extends Spore
+	{
+
+		final private String frozenSpore;
+
+		/**
+		 * The start and the end of each member, one after the other, starting with the metadata if any
+		 */
+		final private int[] offsets;
+
+		final private SporeMetadata metadata;
+
+		/**
+		 * Index of the first member (not metadata) in {@link #members}
+		 */
+		final private int first;
+
+		/**
+		 * The members created so far. Racing threads may both create the same member, which is harmless.
+		 */
+		final private Spore[] members;
+
+
+		LocatedCompositeSpore(final String frozenSpore, final int[] offsets)
+		{
+			this.frozenSpore = frozenSpore;
+			this.offsets = offsets;
+			this.members = new Spore[offsets.length / 2];
+
+			// Only a composite first member may be the metadata object, and even then this may be NULL
+			this.metadata = frozenSpore.startsWith(SPORE_PREFIX, offsets[0]) ? SporeMetadata.fromSpore(member(0)) : null;
+			this.first = metadata == null ? 0 : 1;
+		}
+
+
+		private Spore member(final int index)
+		{
+			Spore result = members[index];
+
+			if (result == null)
+			{
+				final int memberStart = offsets[2 * index];
+				final int memberEnd = offsets[2 * index + 1];
+
+				result = frozenSpore.startsWith(SPORE_PREFIX, memberStart) ?
+						new LazyCompositeSpore(frozenSpore, memberStart, memberEnd) :
+						AtomicSpore.of(frozenSpore, memberStart, memberEnd);
+
+				members[index] = result;
+			}
+
+			return result;
+		}
+
+
+		@Override
+		public SporeMetadata metadata()
+		{
+			return metadata;
+		}
+
+
+		@Override
+		public String version()
+		{
+			return metadata == null ? null : metadata.version();
+		}
+
+
+		@Override
+		public String uniqueIdentifier()
+		{
+			return metadata == null ? null : metadata.uniqueIdentifier();
+		}
+
+
+		@Override
+		public String toString()
+		{
+			return frozenSpore.substring(offsets[0] - SPORE_PREFIX.length(), offsets[offsets.length - 1] + SPORE_SUFFIX.length());
+		}
+
+
+		@Override
+		public void freezeTo(final Appendable out) throws IOException
+		{
+			out.append(frozenSpore, offsets[0] - SPORE_PREFIX.length(), offsets[offsets.length - 1] + SPORE_SUFFIX.length());
+		}
+
+
+		@Override
+		public Iterator<Spore> iterator()
+		{
+			return new Iterator<Spore>()
+			{
+				private int next = first;
+
+				@Override
+				public boolean hasNext()
+				{
+					return next < members.length;
+				}
+
+				@Override
+				public Spore next()
+				{
+					if (!hasNext())
+						throw new NoSuchElementException();
+
+					return member(next++);
+				}
+			};
+		}
+
+
+		@Override
+		public Spliterator<Spore> spliterator()
+		{
+			return IntStream.range(first, members.length).mapToObj(this::member).spliterator();
+		}
+
+
+		@Override
+		public Spore memberAt(final int index)
+		{
+			checkElementIndex(index, memberCount());
+			return member(first + index);
+		}
+
+
+		@Override
+		public int memberCount()
+		{
+			return members.length - first;
+		}
+
+
+		@Override
+		boolean isIndexed()
+		{
+			return true;
+		}
+
+
+		@Override
+		public boolean isPayloadNull()
+		{
+			return false;
+		}
+
+	}
+
+
 	enum SporeMetadataType
 	{
 
@@ -474,7 +1240,12 @@ abstract public class Spore implements Iterable<Spore>
 
 		VERSION ("v"), //$NON-NLS-1$ 
 
-		UNIQUE_IDENTIFIER ("u") //$NON-NLS-1$ 
+		UNIQUE_IDENTIFIER ("u"), //$NON-NLS-1$ 
+
+		/**
+		 * ggrec, 2017-11-09: Only in the header of the length prefixed spores, see {@link SporeLengthPrefixedCodec}
+		 */
+		DIALECT ("d") //$NON-NLS-1$
 
 		;
 
@@ -492,7 +1263,7 @@ abstract public class Spore implements Iterable<Spore>
 	}
 
 
-	private final static class SporeMetadataEntry 
+	final static class SporeMetadataEntry 
 	{
 
 		private String metadataInfo;
@@ -510,7 +1281,7 @@ abstract public class Spore implements Iterable<Spore>
 		}
 
 
-		private SporeMetadataEntry(final String metadataInfo, final SporeMetadataType type)
+		SporeMetadataEntry(final String metadataInfo, final SporeMetadataType type)
 		{
 			this.metadataInfo = Strings.isNullOrEmpty(metadataInfo) ? null : metadataInfo;
 			this.type = checkNotNull(type);
@@ -563,7 +1334,15 @@ abstract public class Spore implements Iterable<Spore>
 
 		private static SporeMetadata fromFrozenSpore(final String frozenMetadataSpore)
 		{
-			final Spore metadataSpore = Spore.fromFrozenSpore(frozenMetadataSpore);
+			return fromSpore(Spore.thaw(frozenMetadataSpore));
+		}
+
+
+		/**
+		 * @return NULL if the spore isn't a metadata spore
+		 */
+		static SporeMetadata fromSpore(final Spore metadataSpore)
+		{
 			final SporeParser metadataSporeParser = new SporeParser(metadataSpore);
 
 			// Metadata object is identified by the prefix
@@ -580,6 +1359,12 @@ abstract public class Spore implements Iterable<Spore>
 		}
 
 
+		SporeMetadata(final ImmutableList<SporeMetadataEntry> entries)
+		{
+			this.entries = checkNotNull(entries);
+		}
+
+
 		SporeMetadata(final Map<SporeMetadataType, String> metadataMap)
 		{
 			checkArgument(metadataMap != null && !metadataMap.isEmpty());
@@ -589,6 +1374,12 @@ abstract public class Spore implements Iterable<Spore>
 		}
 
 
+		ImmutableList<SporeMetadataEntry> entries()
+		{
+			return entries;
+		}
+
+
 		private SporeMetadataEntry entryForType(final SporeMetadataType type)
 		{
 			return this.entries.stream()
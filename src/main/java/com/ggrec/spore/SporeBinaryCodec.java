@@ -0,0 +1,383 @@
+package com.ggrec.spore;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.text.MessageFormat;
+import java.util.Arrays;
+
+import com.ggrec.spore.Spore.AtomicSpore;
+import com.ggrec.spore.Spore.CompositeSpore;
+import com.ggrec.spore.Spore.LongSpore;
+import com.ggrec.spore.Spore.SporeMetadata;
+import com.ggrec.spore.Spore.SporeMetadataEntry;
+import com.ggrec.spore.Spore.SporeMetadataType;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * ggrec, 2017-10-20: Binary form of the spore model, for the wire and the disk. Converts losslessly to and from the text form.
+ *
+ *                    Every spore starts with a tag byte:
+ *                    <ul>
+ *                    <li>{@link #TAG_COMPOSITE} / {@link #TAG_COMPOSITE_WITH_METADATA}: varint member count (without the
+ *                        metadata), the metadata entries if any, then the members</li>
+ *                    <li>{@link #TAG_STRING}: varint length, then the UTF-8 bytes of the payload</li>
+ *                    <li>{@link #TAG_INTEGER}: zigzag varint. Only used for payloads which are exactly what {@link Long#toString()} gives</li>
+ *                    <li>{@link #TAG_NULL}, {@link #TAG_EMPTY_COLLECTION}: nothing else</li>
+ *                    </ul>
+ *
+ *                    Metadata entries are a varint count, then for each entry the ordinal of its {@link SporeMetadataType} and
+ *                    its info as a varint length + 1 (0 meaning no info), followed by the UTF-8 bytes.
+ *
+ * ggrec, 2017-11-22: The composites don't start with their length anymore. Nothing skipped them, so it was 4 wasted
+ *                    bytes per composite.
+ *
+ * @author ggrec
+ *
+ */
+public final class SporeBinaryCodec
+{
+
+	// ==================== 1. Static Fields ========================
+
+	static final byte TAG_COMPOSITE = 1;
+	static final byte TAG_COMPOSITE_WITH_METADATA = 2;
+	static final byte TAG_STRING = 3;
+	static final byte TAG_INTEGER = 4;
+	static final byte TAG_NULL = 5;
+	static final byte TAG_EMPTY_COLLECTION = 6;
+
+	/**
+	 * Longest decimal which surely fits a long
+	 */
+	private static final int MAX_INTEGER_DIGITS = 18;
+
+	private static final SporeMetadataType[] METADATA_TYPES = SporeMetadataType.values();
+
+
+	// ====================== 2. Instance Fields =============================
+
+	private byte[] bytes;
+
+	private int size;
+
+
+	// ==================== 3. Static Methods ====================
+
+	public static byte[] toBytes(final Spore spore)
+	{
+		final SporeBinaryCodec codec = write(checkNotNull(spore));
+		return Arrays.copyOf(codec.bytes, codec.size);
+	}
+
+
+	/**
+	 * Writes the spore at the current position of the buffer
+	 *
+	 * @throws java.nio.BufferOverflowException if the spore doesn't fit
+	 */
+	public static void toBytes(final Spore spore, final ByteBuffer out)
+	{
+		final SporeBinaryCodec codec = write(checkNotNull(spore));
+		out.put(codec.bytes, 0, codec.size);
+	}
+
+
+	/**
+	 * ggrec, 2017-11-22: Reported to {@link SporeMetrics} like the text freezes, the size is in bytes
+	 */
+	private static SporeBinaryCodec write(final Spore spore)
+	{
+		final SporeBinaryCodec codec = new SporeBinaryCodec();
+
+		final SporeMetrics.Listener metrics = SporeMetrics.listener;
+		if (metrics == null || !SporeMetrics.enterFreeze())
+		{
+			codec.writeSpore(spore);
+			return codec;
+		}
+
+		try
+		{
+			final long start = System.nanoTime();
+			codec.writeSpore(spore);
+			metrics.frozen(spore.uniqueIdentifier(), codec.size, System.nanoTime() - start);
+
+			return codec;
+		}
+		finally
+		{
+			SporeMetrics.exitFreeze();
+		}
+	}
+
+
+	public static byte[] fromFrozenSpore(final String frozenSpore)
+	{
+		return toBytes(Spore.fromFrozenSpore(frozenSpore));
+	}
+
+
+	public static Spore fromBytes(final byte[] bytes)
+	{
+		return fromBytes(ByteBuffer.wrap(bytes));
+	}
+
+
+	/**
+	 * Reads one spore from the current position of the buffer, and leaves the position right after it
+	 */
+	public static Spore fromBytes(final ByteBuffer in)
+	{
+		try
+		{
+			return readSpore(in);
+		}
+		catch (final BufferUnderflowException | IndexOutOfBoundsException ex)
+		{
+			throw new IllegalArgumentException("Malformed binary spore", ex); //$NON-NLS-1$
+		}
+	}
+
+
+	public static String toFrozenSpore(final byte[] bytes)
+	{
+		return fromBytes(bytes).toString();
+	}
+
+
+	// ==================== 4. Constructors ====================
+
+	private SporeBinaryCodec()
+	{
+		this.bytes = new byte[256];
+	}
+
+
+	// ==================== 6. Action Methods ====================
+
+	private void writeSpore(final Spore spore)
+	{
+		if (spore.isPayloadNull())
+			writeByte(TAG_NULL);
+
+		else if (spore.isPayloadEmptyCollection())
+			writeByte(TAG_EMPTY_COLLECTION);
+
+		else if (spore instanceof LongSpore)
+			writeInteger(((LongSpore) spore).value());
+
+		else if (spore instanceof AtomicSpore)
+			writeAtomic(spore.toString());
+		else
+			writeComposite(spore);
+	}
+
+
+	private void writeComposite(final Spore spore)
+	{
+		final SporeMetadata metadata = spore.metadata();
+
+		writeByte(metadata == null ? TAG_COMPOSITE : TAG_COMPOSITE_WITH_METADATA);
+		writeVarint(spore.memberCount());
+
+		if (metadata != null)
+		{
+			writeVarint(metadata.entries().size());
+
+			for (final SporeMetadataEntry entry : metadata.entries())
+			{
+				writeByte((byte) entry.type().ordinal());
+
+				if (entry.metadataInfo() == null)
+					writeVarint(0);
+				else
+					writeUtf8(entry.metadataInfo(), 1);
+			}
+		}
+
+		for (final Spore member : spore)
+			writeSpore(member);
+	}
+
+
+	private void writeAtomic(final String payload)
+	{
+		if (isCanonicalInteger(payload))
+			writeInteger(Long.parseLong(payload));
+
+		else
+		{
+			writeByte(TAG_STRING);
+			writeUtf8(payload, 0);
+		}
+	}
+
+
+	private void writeInteger(final long value)
+	{
+		writeByte(TAG_INTEGER);
+		writeVarint((value << 1) ^ (value >> 63));
+	}
+
+
+	/**
+	 * Only payloads which would be written back exactly the same can be stored as numbers. No "+1", "007" or "-0".
+	 */
+	private static boolean isCanonicalInteger(final String payload)
+	{
+		final int start = payload.startsWith("-") ? 1 : 0; //$NON-NLS-1$
+		final int digits = payload.length() - start;
+
+		if (digits == 0 || digits > MAX_INTEGER_DIGITS)
+			return false;
+
+		if (payload.charAt(start) == '0')
+			return digits == 1 && start == 0;
+
+		for (int i = start; i < payload.length(); i++)
+			if (payload.charAt(i) < '0' || payload.charAt(i) > '9')
+				return false;
+
+		return true;
+	}
+
+
+	private void writeUtf8(final String string, final int lengthOffset)
+	{
+		final byte[] utf8 = string.getBytes(UTF_8);
+		writeVarint(utf8.length + lengthOffset);
+
+		ensureCapacity(utf8.length);
+		System.arraycopy(utf8, 0, bytes, size, utf8.length);
+		size += utf8.length;
+	}
+
+
+	private void writeVarint(final long value)
+	{
+		long remaining = value;
+
+		while ((remaining & ~0x7FL) != 0)
+		{
+			writeByte((byte) ((remaining & 0x7F) | 0x80));
+			remaining >>>= 7;
+		}
+
+		writeByte((byte) remaining);
+	}
+
+
+	private void writeByte(final byte value)
+	{
+		ensureCapacity(1);
+		bytes[size++] = value;
+	}
+
+
+	private void ensureCapacity(final int extra)
+	{
+		if (size + extra > bytes.length)
+			bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+	}
+
+
+	private static Spore readSpore(final ByteBuffer in)
+	{
+		final byte tag = in.get();
+
+		switch (tag)
+		{
+			case TAG_NULL:
+				return AtomicSpore.NULL;
+
+			case TAG_EMPTY_COLLECTION:
+				return AtomicSpore.EMPTY_COLLECTION;
+
+			case TAG_INTEGER:
+				final long zigzag = readVarint(in);
+				return AtomicSpore.of(Long.toString((zigzag >>> 1) ^ -(zigzag & 1)));
+
+			case TAG_STRING:
+				return AtomicSpore.of(readUtf8(in, (int) readVarint(in)));
+
+			case TAG_COMPOSITE:
+			case TAG_COMPOSITE_WITH_METADATA:
+				return readComposite(in, tag == TAG_COMPOSITE_WITH_METADATA);
+
+			default:
+				throw new IllegalArgumentException(MessageFormat.format("Unknown binary spore tag {0} at {1}", tag, in.position() - 1)); //$NON-NLS-1$
+		}
+	}
+
+
+	private static Spore readComposite(final ByteBuffer in, final boolean hasMetadata)
+	{
+		final int memberCount = (int) readVarint(in);
+
+		SporeMetadata metadata = null;
+
+		if (hasMetadata)
+		{
+			final int entryCount = (int) readVarint(in);
+			final ImmutableList.Builder<SporeMetadataEntry> entriesB = ImmutableList.builder();
+
+			for (int i = 0; i < entryCount; i++)
+			{
+				final SporeMetadataType type = METADATA_TYPES[in.get()];
+				final int infoLength = (int) readVarint(in);
+
+				entriesB.add(new SporeMetadataEntry(infoLength == 0 ? null : readUtf8(in, infoLength - 1), type));
+			}
+
+			metadata = new SporeMetadata(entriesB.build());
+		}
+
+		final ImmutableList.Builder<Spore> membersB = ImmutableList.builder();
+		for (int i = 0; i < memberCount; i++)
+			membersB.add(readSpore(in));
+
+		return new CompositeSpore(metadata, membersB.build());
+	}
+
+
+	private static String readUtf8(final ByteBuffer in, final int length)
+	{
+		if (length < 0 || length > in.remaining())
+			throw new BufferUnderflowException();
+
+		final String result;
+
+		if (in.hasArray())
+			result = new String(in.array(), in.arrayOffset() + in.position(), length, UTF_8);
+		else
+		{
+			final byte[] utf8 = new byte[length];
+			in.duplicate().get(utf8);
+			result = new String(utf8, UTF_8);
+		}
+
+		in.position(in.position() + length);
+		return result;
+	}
+
+
+	private static long readVarint(final ByteBuffer in)
+	{
+		long result = 0;
+
+		for (int shift = 0; shift < Long.SIZE; shift += 7)
+		{
+			final byte b = in.get();
+			result |= (long) (b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0)
+				return result;
+		}
+
+		throw new IllegalArgumentException(MessageFormat.format("Malformed varint at {0}", in.position())); //$NON-NLS-1$
+	}
+
+}
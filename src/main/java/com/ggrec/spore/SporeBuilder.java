@@ -1,9 +1,13 @@
 package com.ggrec.spore;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -11,8 +15,11 @@ import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import com.ggrec.spore.Spore.AtomicSpore;
 import com.ggrec.spore.Spore.CompositeSpore;
+import com.ggrec.spore.Spore.DoubleSpore;
 import com.ggrec.spore.Spore.ISporable;
+import com.ggrec.spore.Spore.LongSpore;
 import com.ggrec.spore.Spore.Sporable;
 import com.ggrec.spore.Spore.SporeMetadata;
 import com.ggrec.spore.Spore.SporeMetadataType;
@@ -94,13 +101,88 @@ public final class SporeBuilder
 
 	public SporeBuilder appendAsEmptyCollection()
 	{
-		return append(Optional.of(Spore.EMPTY_COLLECTION_PAYLOAD));
+		return append(AtomicSpore.EMPTY_COLLECTION);
 	}
 
 
 	public SporeBuilder appendNullPayload()
 	{
-		return append(Optional.empty());
+		return append(AtomicSpore.NULL);
+	}
+
+
+	/**
+	 * ggrec, 2017-11-02: The primitive overloads don't box. The number is kept as it is, and only formatted when the spore is frozen.
+	 */
+	public SporeBuilder append(final int payload)
+	{
+		return append(LongSpore.of(payload));
+	}
+
+
+	public SporeBuilder append(final long payload)
+	{
+		return append(LongSpore.of(payload));
+	}
+
+
+	public SporeBuilder append(final double payload)
+	{
+		return append(new DoubleSpore(payload));
+	}
+
+
+	/**
+	 * Would be widened to a double otherwise, which is formatted differently
+	 */
+	public SporeBuilder append(final float payload)
+	{
+		return append(AtomicSpore.of(Float.toString(payload)));
+	}
+
+
+	public SporeBuilder append(final boolean payload)
+	{
+		return append(payload ? AtomicSpore.TRUE : AtomicSpore.FALSE);
+	}
+
+
+	/**
+	 * Would be widened to an int otherwise
+	 */
+	public SporeBuilder append(final char payload)
+	{
+		return append(AtomicSpore.of(Character.toString(payload)));
+	}
+
+
+	/**
+	 * ggrec, 2017-11-17: The whole array is one atomic spore, see {@link SporePackedArrays}. Read it with {@link SporeParser#nextAsIntArray()}.
+	 */
+	public SporeBuilder appendIntArray(final int[] payload)
+	{
+		return payload == null ? appendNullPayload() : payload.length == 0 ? appendAsEmptyCollection() : append(AtomicSpore.create(SporePackedArrays.pack(payload)));
+	}
+
+
+	public SporeBuilder appendLongArray(final long[] payload)
+	{
+		return payload == null ? appendNullPayload() : payload.length == 0 ? appendAsEmptyCollection() : append(AtomicSpore.create(SporePackedArrays.pack(payload)));
+	}
+
+
+	public SporeBuilder appendDoubleArray(final double[] payload)
+	{
+		return payload == null ? appendNullPayload() : payload.length == 0 ? appendAsEmptyCollection() : append(AtomicSpore.create(SporePackedArrays.pack(payload)));
+	}
+
+
+	/**
+	 * ggrec, 2017-11-06: Same as the generic append, without looking for an ISporable or a codec
+	 */
+	public SporeBuilder append(final String payload)
+	{
+		return append(payload == null ? AtomicSpore.NULL : AtomicSpore.of(payload));
 	}
 
 
@@ -122,14 +204,17 @@ public final class SporeBuilder
 	{
 		/*
 		 * ggrec, 2017-02-01: Special enum cases, which are always tricky
+		 * 
+		 * ggrec, 2017-11-03: The enums and the other special cases are now in SporeCodecs
 		 */
 		if (payload_O.isPresent())
 		{
 			final T payload = payload_O.get();
 
 			// Special cases first
-			if (payload instanceof Enum<?>)
-				return append(((Enum<?>) payload).ordinal());
+			final SporeCodec<T> codec = SporeCodecs.forValue(payload);
+			if (codec != null)
+				return append(codec.freeze(payload));
 		}
 
 		return append(Spore.from(payload_O));
@@ -147,9 +232,12 @@ public final class SporeBuilder
 		if (map != null)
 			if (!map.isEmpty())
 			{
-				final ImmutableList.Builder<Spore> keyValSpores = ImmutableList.builder();
-				map.forEach((k, v) -> { keyValSpores.add(keyFreezer.apply(k)); keyValSpores.add(valFreezer.apply(v)); });
-				appendAsCollection(keyValSpores.build(), Function.identity());
+				// ggrec, 2017-11-16: Frozen into a list of the right size, instead of collecting the spores twice
+				// ggrec, 2017-11-22: Still copied once into the immutable list. Unlike appendAsIterator, the entries are frozen
+				//                    right away, so the map may change afterwards and the builder may be frozen more than once.
+				final List<Spore> keyValSpores = new ArrayList<>(map.size() * 2);
+				map.forEach((k, v) -> { keyValSpores.add(orNullPayload(keyFreezer.apply(k))); keyValSpores.add(orNullPayload(valFreezer.apply(v))); });
+				append(new CompositeSpore(null, ImmutableList.copyOf(keyValSpores)));
 			}
 			else
 				appendAsEmptyCollection();
@@ -181,27 +269,114 @@ public final class SporeBuilder
 		if (stream == null)
 			return appendNullPayload();
 
-		// if (stream.isEmpty())
-		//     return appendAsEmptyCollection();
-
-		final SporeBuilder sporeB = new SporeBuilder();
-
 		// Map each entity to a spore, given by the freezer function. At this point, we assume
 		// that the spores in theirselves are valid, and don't contain 'illegal' characters
-		final long streamSize = stream
-				.sequential()
+		// ggrec, 2017-11-14: Collected, instead of counted. Sized streams may skip the peek when they're only counted.
+		return appendFrozen(freeze(stream.sequential(), freezer));
+	}
+
+
+	/**
+	 * ggrec, 2017-11-14: Same as {@link #appendAsStream(Stream, Function)}, but the freezer runs in the common pool, on
+	 *                    all the cores. The spores are appended in the order of the stream. The freezer must be thread safe.
+	 *
+	 * PERFORMS TERMINAL OPERATIONS ON THE STREAM 
+	 */
+	public <T> SporeBuilder appendAsStream_Parallel(final Stream<T> stream, final Function<T, Spore> freezer)
+	{
+		return appendAsStream_Parallel(stream, freezer, SporeParallelism.defaults());
+	}
+
+
+	/**
+	 * The size of the stream isn't known, so it's always frozen in parallel, whatever the threshold
+	 */
+	public <T> SporeBuilder appendAsStream_Parallel(final Stream<T> stream, final Function<T, Spore> freezer, final SporeParallelism parallelism)
+	{
+		if (stream == null)
+			return appendNullPayload();
+
+		return appendFrozen(parallelism.invoke(() -> freeze(stream.parallel(), freezer)));
+	}
+
+
+	public <T> SporeBuilder appendAsCollection_Parallel(final Collection<T> collection, final Function<T, Spore> freezer)
+	{
+		return appendAsCollection_Parallel(collection, freezer, SporeParallelism.defaults());
+	}
+
+
+	/**
+	 * Collections smaller than the threshold are frozen on this thread
+	 */
+	public <T> SporeBuilder appendAsCollection_Parallel(final Collection<T> collection, final Function<T, Spore> freezer, final SporeParallelism parallelism)
+	{
+		if (collection == null || !parallelism.isWorthIt(collection.size()))
+			return appendAsCollection(collection, freezer);
+
+		return appendFrozen(parallelism.invoke(() -> freeze(collection.parallelStream(), freezer)));
+	}
+
+
+	public <K, V> SporeBuilder appendAsMap_Parallel(final Map<K, V> map, final Function<K, Spore> keyFreezer, final Function<V, Spore> valFreezer)
+	{
+		return appendAsMap_Parallel(map, keyFreezer, valFreezer, SporeParallelism.defaults());
+	}
+
+
+	/**
+	 * Same spore as {@link #appendAsMap(Map, Function, Function)}. The entries are copied first, because the iteration order
+	 * of a map isn't always its split order.
+	 */
+	public <K, V> SporeBuilder appendAsMap_Parallel(final Map<K, V> map, final Function<K, Spore> keyFreezer, final Function<V, Spore> valFreezer, final SporeParallelism parallelism)
+	{
+		if (map == null || !parallelism.isWorthIt(map.size()))
+			return appendAsMap(map, keyFreezer, valFreezer);
+
+		final List<Map.Entry<K, V>> entries = new ArrayList<>(map.entrySet());
+
+		return appendFrozen(parallelism.invoke(() -> entries.parallelStream()
+				.flatMap(entry -> Stream.of(keyFreezer.apply(entry.getKey()), valFreezer.apply(entry.getValue())))
+				.map(SporeBuilder::orNullPayload)
+				.collect(toImmutableList())));
+	}
+
+
+	/**
+	 * The encounter order is kept, even for parallel streams
+	 */
+	private static <T> ImmutableList<Spore> freeze(final Stream<T> stream, final Function<T, Spore> freezer)
+	{
+		return stream
 				.map(freezer)
-				.peek(spore -> {
+				.map(SporeBuilder::orNullPayload)
+				.collect(toImmutableList());
+	}
+
+
+	private static Spore orNullPayload(final Spore spore)
+	{
+		return spore == null ? AtomicSpore.NULL : spore;
+	}
 
-					if (spore == null)
-						sporeB.appendNullPayload();
-					else 
-						sporeB.append(spore);
-				})
-				.count();
 
-		// Since there's no way of knowing if a stream is empty or not, we do this little hack with the counter
-		return streamSize == 0 ? appendAsEmptyCollection() : append(sporeB);
+	private SporeBuilder appendFrozen(final ImmutableList<Spore> frozenElements)
+	{
+		return frozenElements.isEmpty() ? appendAsEmptyCollection() : append(new CompositeSpore(null, frozenElements));
+	}
+
+
+	/**
+	 * ggrec, 2017-11-15: For collections which don't fit in memory. Nothing is read from the iterator until the spore is frozen
+	 *                    with {@link #freezeTo(Appendable)} or {@link Spore#freezeTo(Appendable)}. Then each element is frozen
+	 *                    and written right away, and forgotten. Same frozen spore as {@link #appendAsCollection(Collection, Function)}.
+	 *
+	 *                    The iterator is read only once. Anything else than freezeTo (toString, iterating, etc.) keeps all the
+	 *                    elements in memory, so that they can be read again.
+	 */
+	public <T> SporeBuilder appendAsIterator(final Iterator<T> iterator, final Function<T, Spore> freezer)
+	{
+		return iterator == null ? appendNullPayload() : append(new IteratorCollectionSpore<>(iterator, checkNotNull(freezer)));
 	}
 
 
@@ -255,9 +430,196 @@ public final class SporeBuilder
 	}
 
 
+	/**
+	 * Same as freezing the built spore, without copying the enclosed spores into a new spore first
+	 * 
+	 * @see Spore#freezeTo(Appendable)
+	 */
+	public void freezeTo(final Appendable out) throws IOException
+	{
+		final SporeMetadata metadata = buildMetadata();
+
+		// ggrec, 2017-11-22: Nothing is written if it can't be frozen whole
+		CompositeSpore.checkTextForm(enclosedSpores);
+
+		// ggrec, 2017-11-22: See SporeMetrics
+		if (SporeMetrics.listener == null)
+			CompositeSpore.freezeTo(out, metadata, enclosedSpores, true);
+		else
+			SporeMetrics.reportFreeze(out, metadataMap.get(SporeMetadataType.UNIQUE_IDENTIFIER), counted -> CompositeSpore.freezeTo(counted, metadata, enclosedSpores, true));
+	}
+
+
 	public Spore build()
 	{
-		return new CompositeSpore( buildMetadata(), ImmutableList.copyOf(enclosedSpores) );
+		final SporeMetadata metadata = buildMetadata();
+
+		// ggrec, 2017-11-21: See SporeMetrics
+		final SporeMetrics.Listener metrics = SporeMetrics.listener;
+		if (metrics != null && metadata != null)
+			metrics.built(metadataMap.get(SporeMetadataType.UNIQUE_IDENTIFIER), enclosedSpores.size());
+
+		return new CompositeSpore( metadata, ImmutableList.copyOf(enclosedSpores) );
+	}
+
+
+
+	// =======================================================
+	// 			 19. Inline Classes 
+	// =======================================================
+
+	/**
+	 * The elements are frozen straight into the output, the first time the spore is frozen. If the spore is needed in any
+	 * other way before that, the elements are kept in a {@link CompositeSpore}.
+	 */
+	static final class IteratorCollectionSpore<T> extends Spore
+	{
+
+		private Iterator<T> iterator;
+
+		final private Function<T, Spore> freezer;
+
+		/**
+		 * NULL until the elements are kept
+		 */
+		private Spore located;
+
+		private boolean streamed;
+
+		private boolean streamedEmpty;
+
+
+		IteratorCollectionSpore(final Iterator<T> iterator, final Function<T, Spore> freezer)
+		{
+			this.iterator = iterator;
+			this.freezer = freezer;
+		}
+
+
+		private synchronized Spore located()
+		{
+			checkState(!streamed, "The collection was already frozen, and its iterator is used up"); //$NON-NLS-1$
+
+			if (located == null)
+			{
+				// The elements may be NULL
+				final List<T> elements = new ArrayList<>();
+				iterator.forEachRemaining(elements::add);
+				iterator = null;
+
+				located = new SporeBuilder().appendAsCollection(elements, freezer).build().iterator().next();
+			}
+
+			return located;
+		}
+
+
+		@Override
+		public synchronized void freezeTo(final Appendable out) throws IOException
+		{
+			if (located != null || streamed)
+			{
+				located().freezeTo(out);
+				return;
+			}
+
+			streamed = true;
+
+			if (!iterator.hasNext())
+			{
+				streamedEmpty = true;
+				out.append(Spore.EMPTY_COLLECTION_PAYLOAD);
+				return;
+			}
+
+			out.append(Spore.SPORE_PREFIX);
+
+			for (boolean first = true; iterator.hasNext(); first = false)
+			{
+				if (!first)
+					out.append(Spore.SPORE_MEMBER_SEPARATOR);
+
+				CompositeSpore.freezeMemberTo(out, orNullPayload(freezer.apply(iterator.next())), true);
+			}
+
+			out.append(Spore.SPORE_SUFFIX);
+			iterator = null;
+		}
+
+
+		@Override
+		public String toString()
+		{
+			return located().toString();
+		}
+
+
+		@Override
+		public Iterator<Spore> iterator()
+		{
+			return located().iterator();
+		}
+
+
+		@Override
+		public Spore memberAt(final int index)
+		{
+			return located().memberAt(index);
+		}
+
+
+		@Override
+		public int memberCount()
+		{
+			return located().memberCount();
+		}
+
+
+		@Override
+		boolean isIndexed()
+		{
+			return true;
+		}
+
+
+		@Override
+		public synchronized boolean isPayloadEmptyCollection()
+		{
+			// Peeking at the iterator doesn't read any element
+			if (streamed)
+				return streamedEmpty;
+
+			return located == null ? !iterator.hasNext() : located.isPayloadEmptyCollection();
+		}
+
+
+		@Override
+		public boolean isPayloadNull()
+		{
+			return false;
+		}
+
+
+		@Override
+		public SporeMetadata metadata()
+		{
+			return null;
+		}
+
+
+		@Override
+		public String version()
+		{
+			return null;
+		}
+
+
+		@Override
+		public String uniqueIdentifier()
+		{
+			return null;
+		}
+
 	}
 
 }
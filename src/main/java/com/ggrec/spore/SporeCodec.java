@@ -0,0 +1,19 @@
+package com.ggrec.spore;
+
+/**
+ * ggrec, 2017-11-03: Freezes and unfreezes the values of one type. Register it in {@link SporeCodecs}, and it's used by
+ *                    {@link SporeBuilder#append(Object)} and {@link SporeParser#nextAs(Class)}.
+ *
+ *                    The codec never sees NULL. NULL values are NULL spores, like for every other type.
+ *
+ * @author ggrec
+ *
+ */
+public interface SporeCodec<T>
+{
+
+	Spore freeze(T value);
+
+	T unfreeze(Spore spore);
+
+}
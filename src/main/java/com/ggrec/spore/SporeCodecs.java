@@ -0,0 +1,313 @@
+package com.ggrec.spore;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.text.MessageFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import com.ggrec.spore.Spore.AtomicSpore;
+import com.ggrec.spore.Spore.LongSpore;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * ggrec, 2017-11-03: The {@link SporeCodec} of each type. Finding the codec of a value is a single lookup, by its class.
+ *
+ *                    Registered by default: {@link UUID}, {@link LocalDate}, {@link Instant} and {@link Locale}. Their
+ *                    payloads are the ISO formats, which are parsed by hand when they are in the canonical form.
+ *                    Enums without a registered codec are frozen by ordinal. Register {@link #enumByName(Class)} for the
+ *                    enums whose constants may be reordered.
+ *
+ * @author ggrec
+ *
+ */
+public final class SporeCodecs
+{
+
+	// ==================== 1. Static Fields ========================
+
+	private static final ConcurrentMap<Class<?>, SporeCodec<?>> registered = new ConcurrentHashMap<>();
+
+	private static final ClassValue<Optional<SporeCodec<?>>> codecs = new ClassValue<Optional<SporeCodec<?>>>()
+	{
+		@Override
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		protected Optional<SporeCodec<?>> computeValue(final Class<?> type)
+		{
+			final SporeCodec<?> codec = registered.get(type);
+
+			if (codec == null && type.isEnum())
+				return Optional.of(enumByOrdinal((Class) type));
+
+			return Optional.ofNullable(codec);
+		}
+	};
+
+	private static final long SECONDS_PER_DAY = 86_400;
+
+	private static final int[] NANO_SCALE = { 0, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1 };
+
+	static
+	{
+		register(UUID.class, codec(UUID::toString, SporeCodecs::parseUuid));
+		register(LocalDate.class, codec(LocalDate::toString, SporeCodecs::parseLocalDate));
+		register(Instant.class, codec(Instant::toString, SporeCodecs::parseInstant));
+		register(Locale.class, codec(Locale::toLanguageTag, Locale::forLanguageTag));
+	}
+
+
+	// ==================== 3. Static Methods ====================
+
+	/**
+	 * Replaces the codec of this type, if there was one
+	 */
+	public static <T> void register(final Class<T> type, final SporeCodec<T> codec)
+	{
+		registered.put(checkNotNull(type), checkNotNull(codec));
+		codecs.remove(type);
+	}
+
+
+	/**
+	 * @return NULL if the type has no codec
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> SporeCodec<T> forClass(final Class<T> type)
+	{
+		return (SporeCodec<T>) codecs.get(type).orElse(null);
+	}
+
+
+	/**
+	 * The constants with a body are subclasses of their enum
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> SporeCodec<T> forValue(final T value)
+	{
+		final Class<?> type = value instanceof Enum<?> ? ((Enum<?>) value).getDeclaringClass() : value.getClass();
+		return (SporeCodec<T>) forClass(type);
+	}
+
+
+	/**
+	 * The default for enums. Same payload as before the codecs.
+	 */
+	public static <E extends Enum<E>> SporeCodec<E> enumByOrdinal(final Class<E> enumClass)
+	{
+		// Cloned only once, instead of on every unfreeze
+		final E[] constants = enumClass.getEnumConstants();
+
+		return new SporeCodec<E>()
+		{
+			@Override
+			public Spore freeze(final E value)
+			{
+				return LongSpore.of(value.ordinal());
+			}
+
+			@Override
+			public E unfreeze(final Spore spore)
+			{
+				return constants[Integer.parseInt(spore.toString())];
+			}
+		};
+	}
+
+
+	/**
+	 * The payload is the name of the constant, so the constants can be reordered or added without breaking the frozen spores
+	 */
+	public static <E extends Enum<E>> SporeCodec<E> enumByName(final Class<E> enumClass)
+	{
+		final ImmutableMap.Builder<String, E> constantsB = ImmutableMap.builder();
+		for (final E constant : enumClass.getEnumConstants())
+			constantsB.put(constant.name(), constant);
+
+		final ImmutableMap<String, E> constants = constantsB.build();
+
+		return new SporeCodec<E>()
+		{
+			@Override
+			public Spore freeze(final E value)
+			{
+				return AtomicSpore.of(value.name());
+			}
+
+			@Override
+			public E unfreeze(final Spore spore)
+			{
+				final E constant = constants.get(spore.toString());
+
+				if (constant == null)
+					throw new IllegalArgumentException(MessageFormat.format("{0} has no constant named {1}", enumClass.getSimpleName(), spore)); //$NON-NLS-1$
+
+				return constant;
+			}
+		};
+	}
+
+
+	private static <T> SporeCodec<T> codec(final Function<T, String> formatter, final Function<String, T> parser)
+	{
+		return new SporeCodec<T>()
+		{
+			@Override
+			public Spore freeze(final T value)
+			{
+				return AtomicSpore.of(formatter.apply(value));
+			}
+
+			@Override
+			public T unfreeze(final Spore spore)
+			{
+				return parser.apply(spore.toString());
+			}
+		};
+	}
+
+
+	/**
+	 * 8-4-4-4-12 hex digits. Anything else goes to {@link UUID#fromString(String)}, which splits with a regex.
+	 */
+	static UUID parseUuid(final String payload)
+	{
+		if (payload.length() == 36 && payload.charAt(8) == '-' && payload.charAt(13) == '-' && payload.charAt(18) == '-' && payload.charAt(23) == '-')
+		{
+			final long part1 = hex(payload, 0, 8);
+			final long part2 = hex(payload, 9, 13);
+			final long part3 = hex(payload, 14, 18);
+			final long part4 = hex(payload, 19, 23);
+			final long part5 = hex(payload, 24, 36);
+
+			if ((part1 | part2 | part3 | part4 | part5) >= 0)
+				return new UUID(part1 << 32 | part2 << 16 | part3, part4 << 48 | part5);
+		}
+
+		return UUID.fromString(payload);
+	}
+
+
+	/**
+	 * yyyy-MM-dd. Anything else goes to {@link LocalDate#parse(CharSequence)}.
+	 */
+	static LocalDate parseLocalDate(final String payload)
+	{
+		if (payload.length() == 10)
+		{
+			final LocalDate date = parseDate(payload);
+			if (date != null)
+				return date;
+		}
+
+		return LocalDate.parse(payload);
+	}
+
+
+	/**
+	 * yyyy-MM-ddTHH:mm:ss, with up to 9 fraction digits, then Z. This is what {@link Instant#toString()} gives for the
+	 * years 0 to 9999. Anything else goes to {@link Instant#parse(CharSequence)}.
+	 */
+	static Instant parseInstant(final String payload)
+	{
+		final int length = payload.length();
+
+		if (length >= 20 && length <= 30 && length != 21 && payload.charAt(10) == 'T' && payload.charAt(13) == ':' && payload.charAt(16) == ':' && payload.charAt(length - 1) == 'Z')
+		{
+			final LocalDate date = parseDate(payload);
+			final int hour = digits(payload, 11, 13);
+			final int minute = digits(payload, 14, 16);
+			final int second = digits(payload, 17, 19);
+			final int fraction = length == 20 ? 0 : payload.charAt(19) == '.' ? digits(payload, 20, length - 1) : -1;
+
+			if (date != null && hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 60 && fraction >= 0)
+			{
+				final long nanos = length == 20 ? 0 : (long) fraction * NANO_SCALE[length - 21];
+				return Instant.ofEpochSecond(date.toEpochDay() * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second, nanos);
+			}
+		}
+
+		return Instant.parse(payload);
+	}
+
+
+	/**
+	 * @return NULL if the first 10 chars aren't a valid yyyy-MM-dd
+	 */
+	private static LocalDate parseDate(final String payload)
+	{
+		if (payload.charAt(4) != '-' || payload.charAt(7) != '-')
+			return null;
+
+		final int year = digits(payload, 0, 4);
+		final int month = digits(payload, 5, 7);
+		final int day = digits(payload, 8, 10);
+
+		if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31)
+			return null;
+
+		try
+		{
+			return LocalDate.of(year, month, day);
+		}
+		catch (final DateTimeException ex)
+		{
+			// February 30th, and such. The fallback gives the usual parse exception.
+			return null;
+		}
+	}
+
+
+	/**
+	 * @return -1 if not all the chars are decimal digits
+	 */
+	private static int digits(final String string, final int start, final int end)
+	{
+		int result = 0;
+
+		for (int i = start; i < end; i++)
+		{
+			final char c = string.charAt(i);
+			if (c < '0' || c > '9')
+				return -1;
+
+			result = result * 10 + (c - '0');
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * @return -1 if not all the chars are hex digits. At most 12 of them, so the result is never negative otherwise.
+	 */
+	private static long hex(final String string, final int start, final int end)
+	{
+		long result = 0;
+
+		for (int i = start; i < end; i++)
+		{
+			final int digit = Character.digit(string.charAt(i), 16);
+			if (digit < 0)
+				return -1;
+
+			result = result << 4 | digit;
+		}
+
+		return result;
+	}
+
+
+	// ==================== 4. Constructors ====================
+
+	private SporeCodecs()
+	{
+	}
+
+}
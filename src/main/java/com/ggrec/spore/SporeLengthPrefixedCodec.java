@@ -0,0 +1,467 @@
+package com.ggrec.spore;
+
+import static com.ggrec.spore.Spore.SPORE_SUFFIX;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+
+import com.ggrec.spore.Spore.AtomicSpore;
+import com.ggrec.spore.Spore.CompositeSpore;
+import com.ggrec.spore.Spore.SporeMetadata;
+import com.ggrec.spore.Spore.SporeMetadataEntry;
+import com.ggrec.spore.Spore.SporeMetadataType;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * ggrec, 2017-11-09: The length prefixed text dialect (dialect 3). Each member carries its length, so a reader jumps over
+ *                    the members it doesn't need without looking at them, and the payloads may contain the delimiters.
+ *
+ *                    The frozen spore starts with a metadata spore announcing the dialect, {|{|spr_|_d3|}, so that
+ *                    {@link Spore#fromFrozenSpore(String)} tells it apart from the usual spores. Then come the members, and
+ *                    the usual suffix:
+ *                    <ul>
+ *                    <li>atomic: a, the length of the payload, a colon, then the payload</li>
+ *                    <li>composite: c, the length of its members, a colon, then the members</li>
+ *                    </ul>
+ *
+ *                    The metadata of a composite is its first member, like in the usual text form. Example:
+ *                    {|{|spr_|_d3|}c19:a3:spra2:v1a5:uUserc13:a2:--a5:hello|}
+ *
+ *                    Only the members of the outermost composite are located when it's unfrozen. The enclosed composites are
+ *                    located when someone iterates over them. Unfrozen spores are read the same as the usual ones.
+ *
+ * ggrec, 2017-11-22: Unfrozen spores freeze back to this dialect, by copying their own part of the frozen spore. The usual
+ *                    text form would break the payloads which contain delimiters. When they're enclosed in a spore of the
+ *                    usual form, they're written in that form, unless a payload contains a delimiter.
+ *
+ * @author ggrec
+ *
+ */
+public final class SporeLengthPrefixedCodec
+{
+
+	// ==================== 1. Static Fields ========================
+
+	static final String DIALECT = "3"; //$NON-NLS-1$
+
+	/**
+	 * {|{|spr_|_d3|}
+	 */
+	static final String HEADER = Spore.SPORE_PREFIX + new SporeMetadata(ImmutableList.of(SporeMetadataEntry.metadataPrefix(), new SporeMetadataEntry(DIALECT, SporeMetadataType.DIALECT)))
+			.assembleSpore().build().toString();
+
+	private static final char ATOMIC = 'a';
+	private static final char COMPOSITE = 'c';
+	private static final char LENGTH_END = ':';
+
+	/**
+	 * Longest length which surely fits an int
+	 */
+	private static final int MAX_LENGTH_DIGITS = 9;
+
+
+	// ====================== 2. Instance Fields =============================
+
+	/**
+	 * In the order they're written: the payloads of the atomic spores, and the lengths of the composite spores
+	 */
+	final private List<Object> plan = new ArrayList<>();
+
+	private int planPos;
+
+
+	// ==================== 3. Static Methods ====================
+
+	public static boolean isLengthPrefixed(final String frozenSpore)
+	{
+		return frozenSpore != null && frozenSpore.length() >= HEADER.length() + SPORE_SUFFIX.length() && frozenSpore.startsWith(HEADER) && frozenSpore.endsWith(SPORE_SUFFIX);
+	}
+
+
+	/**
+	 * Atomic spores don't have a dialect, their frozen form is their payload
+	 */
+	public static String toFrozenSpore(final Spore spore)
+	{
+		final StringBuilder sb = new StringBuilder();
+
+		try
+		{
+			freezeTo(spore, sb);
+		}
+		catch (final IOException ex)
+		{
+			// StringBuilder doesn't throw
+			throw new AssertionError(ex);
+		}
+
+		return sb.toString();
+	}
+
+
+	public static void freezeTo(final Spore spore, final Appendable out) throws IOException
+	{
+		checkNotNull(spore);
+
+		// ggrec, 2017-11-22: See SporeMetrics
+		if (SporeMetrics.listener == null)
+			freezeTo_Unreported(spore, out);
+		else
+			SporeMetrics.reportFreeze(out, spore.uniqueIdentifier(), counted -> freezeTo_Unreported(spore, counted));
+	}
+
+
+	private static void freezeTo_Unreported(final Spore spore, final Appendable out) throws IOException
+	{
+		// Atomic spores don't have a dialect, and the unfrozen ones already have their frozen form
+		if (isAtomic(spore) || spore instanceof LengthPrefixedCompositeSpore)
+		{
+			spore.freezeTo(out);
+			return;
+		}
+
+		// The lengths of the composites are needed before their members are written, so they're measured first
+		final SporeLengthPrefixedCodec codec = new SporeLengthPrefixedCodec();
+		codec.measureMembers(spore);
+
+		out.append(HEADER);
+		codec.writeMembers(spore, out);
+		out.append(SPORE_SUFFIX);
+	}
+
+
+	/**
+	 * Usually not needed, {@link Spore#fromFrozenSpore(String)} recognizes this dialect
+	 *
+	 * @throws IllegalArgumentException if the spore isn't in this dialect, or when a malformed member is located
+	 */
+	public static Spore fromFrozenSpore(final String frozenSpore)
+	{
+		if (!isLengthPrefixed(frozenSpore))
+			throw new IllegalArgumentException(MessageFormat.format("Not a length prefixed spore: {0}", frozenSpore)); //$NON-NLS-1$
+
+		final LengthPrefixedCompositeSpore spore = new LengthPrefixedCompositeSpore(frozenSpore, HEADER.length(), frozenSpore.length() - SPORE_SUFFIX.length());
+
+		// The outermost members are checked right away, like the other dialects do
+		spore.located();
+		return spore;
+	}
+
+
+	private static int lengthOfHeader(final int length)
+	{
+		int digits = 1;
+		for (int rest = length; rest >= 10; rest /= 10)
+			digits++;
+
+		// Tag + digits + colon
+		return digits + 2;
+	}
+
+
+	/**
+	 * ggrec, 2017-11-22: The empty iterator collections are the atomic empty collection, like in the other dialects
+	 */
+	private static boolean isAtomic(final Spore spore)
+	{
+		return spore instanceof AtomicSpore || spore.isPayloadEmptyCollection();
+	}
+
+
+	private static boolean containsDelimiter(final String payload)
+	{
+		return payload.contains(Spore.SPORE_PREFIX) || payload.contains(SPORE_SUFFIX) || payload.contains(Spore.SPORE_MEMBER_SEPARATOR);
+	}
+
+
+	private static IllegalArgumentException delimiterInPayload(final String payload)
+	{
+		return new IllegalArgumentException(MessageFormat.format("Payload \"{0}\" contains a delimiter, it can only be enclosed in a length prefixed spore. See {1}.", payload, SporeLengthPrefixedCodec.class.getSimpleName())); //$NON-NLS-1$
+	}
+
+
+	private static IllegalArgumentException malformed(final String frozenSpore, final int pos)
+	{
+		return new IllegalArgumentException(MessageFormat.format("Malformed length prefixed spore at {0}: {1}", pos, frozenSpore)); //$NON-NLS-1$
+	}
+
+
+	// ==================== 4. Constructors ====================
+
+	private SporeLengthPrefixedCodec()
+	{
+	}
+
+
+	// ==================== 6. Action Methods ====================
+
+	private int measureMembers(final Spore composite)
+	{
+		int length = 0;
+
+		final SporeMetadata metadata = composite.metadata();
+		if (metadata != null)
+			length += measure(metadata.assembleSpore().build());
+
+		for (final Spore member : composite)
+			length += measure(member);
+
+		return length;
+	}
+
+
+	private int measure(final Spore spore)
+	{
+		if (isAtomic(spore))
+		{
+			final String payload = spore instanceof AtomicSpore ? String.valueOf(spore.toString()) : Spore.EMPTY_COLLECTION_PAYLOAD;
+			plan.add(payload);
+			return lengthOfHeader(payload.length()) + payload.length();
+		}
+
+		final int planIndex = plan.size();
+		plan.add(null);
+
+		final int length = measureMembers(spore);
+		plan.set(planIndex, length);
+
+		return lengthOfHeader(length) + length;
+	}
+
+
+	private void writeMembers(final Spore composite, final Appendable out) throws IOException
+	{
+		final SporeMetadata metadata = composite.metadata();
+		if (metadata != null)
+			write(metadata.assembleSpore().build(), out);
+
+		for (final Spore member : composite)
+			write(member, out);
+	}
+
+
+	private void write(final Spore spore, final Appendable out) throws IOException
+	{
+		final Object planned = plan.get(planPos++);
+
+		if (planned instanceof String)
+		{
+			final String payload = (String) planned;
+			out.append(ATOMIC).append(Integer.toString(payload.length())).append(LENGTH_END).append(payload);
+		}
+		else
+		{
+			out.append(COMPOSITE).append(planned.toString()).append(LENGTH_END);
+			writeMembers(spore, out);
+		}
+	}
+
+
+	// =======================================================
+	// 			 19. Inline Classes
+	// =======================================================
+
+	/**
+	 * The members of a composite, as an offset range in the frozen spore. They are located the first time they're needed,
+	 * by jumping from one length to the next, and then kept.
+	 */
+	static final class LengthPrefixedCompositeSpore extends Spore
+	{
+
+		final private String frozenSpore;
+
+		final private int start;
+
+		final private int end;
+
+		private volatile CompositeSpore located;
+
+
+		LengthPrefixedCompositeSpore(final String frozenSpore, final int start, final int end)
+		{
+			this.frozenSpore = frozenSpore;
+			this.start = start;
+			this.end = end;
+		}
+
+
+		private CompositeSpore located()
+		{
+			CompositeSpore result = located;
+
+			if (result == null)
+				located = result = locate();
+
+			return result;
+		}
+
+
+		private CompositeSpore locate()
+		{
+			final ImmutableList.Builder<Spore> membersB = ImmutableList.builder();
+			SporeMetadata metadata = null;
+
+			int pos = start;
+			while (pos < end)
+			{
+				final int memberStart = pos;
+				final char tag = frozenSpore.charAt(pos++);
+
+				int length = 0;
+				final int digitsStart = pos;
+				while (pos < end && pos - digitsStart < MAX_LENGTH_DIGITS && frozenSpore.charAt(pos) >= '0' && frozenSpore.charAt(pos) <= '9')
+					length = length * 10 + (frozenSpore.charAt(pos++) - '0');
+
+				if (pos == digitsStart || pos >= end || frozenSpore.charAt(pos) != LENGTH_END || length > end - pos - 1)
+					throw malformed(frozenSpore, memberStart);
+
+				final int payloadStart = pos + 1;
+				pos = payloadStart + length;
+
+				if (tag == ATOMIC)
+					membersB.add(AtomicSpore.of(frozenSpore, payloadStart, pos));
+
+				else if (tag == COMPOSITE)
+				{
+					final LengthPrefixedCompositeSpore member = new LengthPrefixedCompositeSpore(frozenSpore, payloadStart, pos);
+
+					// This will be NULL if the first member isn't a metadata object
+					if (memberStart == start && (metadata = SporeMetadata.fromSpore(member)) != null)
+						continue;
+
+					membersB.add(member);
+				}
+
+				else
+					throw malformed(frozenSpore, memberStart);
+			}
+
+			return new CompositeSpore(metadata, membersB.build());
+		}
+
+
+		@Override
+		public SporeMetadata metadata()
+		{
+			return located().metadata();
+		}
+
+
+		@Override
+		public String version()
+		{
+			return located().version();
+		}
+
+
+		@Override
+		public String uniqueIdentifier()
+		{
+			return located().uniqueIdentifier();
+		}
+
+
+		/**
+		 * In this dialect. The enclosed composites are written as if they were the outermost one.
+		 */
+		@Override
+		public String toString()
+		{
+			return new StringBuilder(HEADER.length() + end - start + SPORE_SUFFIX.length())
+					.append(HEADER)
+					.append(frozenSpore, start, end)
+					.append(SPORE_SUFFIX)
+					.toString();
+		}
+
+
+		@Override
+		public void freezeTo(final Appendable out) throws IOException
+		{
+			out.append(HEADER).append(frozenSpore, start, end).append(SPORE_SUFFIX);
+		}
+
+
+		/**
+		 * When enclosed in a spore of the usual text form
+		 *
+		 * @throws IllegalArgumentException if a payload contains a delimiter, which the usual form can't hold
+		 */
+		void freezeTo_Text(final Appendable out) throws IOException
+		{
+			checkTextForm();
+			located().freezeTo(out);
+		}
+
+
+		/**
+		 * ggrec, 2017-11-22: The whole subtree, including the metadata, before anything is written
+		 *
+		 * @throws IllegalArgumentException if a payload or a metadata info contains a delimiter
+		 */
+		void checkTextForm()
+		{
+			final CompositeSpore spore = located();
+
+			if (spore.metadata() != null)
+				for (final SporeMetadataEntry entry : spore.metadata().entries())
+					if (entry.metadataInfo() != null && containsDelimiter(entry.metadataInfo()))
+						throw delimiterInPayload(entry.metadataInfo());
+
+			for (final Spore member : spore)
+				if (member instanceof LengthPrefixedCompositeSpore)
+					((LengthPrefixedCompositeSpore) member).checkTextForm();
+				else if (member instanceof AtomicSpore && containsDelimiter(member.toString()))
+					throw delimiterInPayload(member.toString());
+		}
+
+
+		@Override
+		public Iterator<Spore> iterator()
+		{
+			return located().iterator();
+		}
+
+
+		@Override
+		public Spliterator<Spore> spliterator()
+		{
+			return located().spliterator();
+		}
+
+
+		@Override
+		public Spore memberAt(final int index)
+		{
+			return located().memberAt(index);
+		}
+
+
+		@Override
+		public int memberCount()
+		{
+			return located().memberCount();
+		}
+
+
+		@Override
+		boolean isIndexed()
+		{
+			return true;
+		}
+
+
+		@Override
+		public boolean isPayloadNull()
+		{
+			return false;
+		}
+
+	}
+
+}
@@ -0,0 +1,232 @@
+package com.ggrec.spore;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import com.google.common.primitives.Ints;
+
+/**
+ * ggrec, 2017-11-21: Opt-in instrumentation of the freezing, thawing and class resolution. Nothing is measured until a
+ *                    {@link Listener} is installed. Until then the hot paths only read one volatile field, and don't call
+ *                    {@link System#nanoTime()}.
+ *
+ *                    The listener is called on the thread which did the work, so it must be thread safe and quick.
+ *                    See {@link SporeMetricsRecorder} for the built-in counters.
+ *
+ * @author ggrec
+ *
+ */
+public final class SporeMetrics
+{
+
+	// ==================== 1. Static Fields ========================
+
+	/**
+	 * NULL when disabled, which is the only thing the hot paths look at
+	 */
+	static volatile Listener listener;
+
+	/**
+	 * Only the outermost freeze is reported, the enclosed composites are frozen inside it. Only touched when enabled.
+	 */
+	private static final ThreadLocal<boolean[]> freezing = ThreadLocal.withInitial(() -> new boolean[1]);
+
+
+	// ==================== 3. Static Methods ====================
+
+	/**
+	 * Replaces the listener which was installed before, if any
+	 */
+	public static void install(final Listener newListener)
+	{
+		listener = checkNotNull(newListener);
+	}
+
+
+	public static void uninstall()
+	{
+		listener = null;
+	}
+
+
+	public static Optional<Listener> installed()
+	{
+		return Optional.ofNullable(listener);
+	}
+
+
+	/**
+	 * @return false if a freeze is already running on this thread, which will report this one as well
+	 */
+	static boolean enterFreeze()
+	{
+		final boolean[] running = freezing.get();
+
+		if (running[0])
+			return false;
+
+		running[0] = true;
+		return true;
+	}
+
+
+	static void exitFreeze()
+	{
+		freezing.get()[0] = false;
+	}
+
+
+	/**
+	 * ggrec, 2017-11-22: For the freezes which write into an output, instead of returning a string. What's written is counted
+	 *                    only when enabled.
+	 */
+	static void reportFreeze(final Appendable out, final String uniqueIdentifier, final Freezer freezer) throws IOException
+	{
+		final Listener metrics = listener;
+		if (metrics == null || !enterFreeze())
+		{
+			freezer.freezeTo(out);
+			return;
+		}
+
+		try
+		{
+			final CountingAppendable counted = new CountingAppendable(out);
+			final long start = System.nanoTime();
+			freezer.freezeTo(counted);
+			metrics.frozen(uniqueIdentifier, Ints.saturatedCast(counted.count), System.nanoTime() - start);
+		}
+		finally
+		{
+			exitFreeze();
+		}
+	}
+
+
+	// ==================== 4. Constructors ====================
+
+	private SporeMetrics()
+	{
+	}
+
+
+	// =======================================================
+	// 			 19. Inline Classes
+	// =======================================================
+
+	/**
+	 * Every method does nothing by default. The durations are in nanoseconds, the sizes in characters of the text form.
+	 * The unique identifiers are NULL for the spores which don't have one.
+	 */
+	public interface Listener
+	{
+
+		/**
+		 * A composite spore was frozen to text with {@link Spore#toString()}. The enclosed composites aren't reported
+		 * separately, they're part of the outermost one.
+		 *
+		 * ggrec, 2017-11-22: Also {@link Spore#freezeTo(Appendable)}, {@link SporeBuilder#freezeTo(Appendable)}, and the
+		 *                    {@link SporeLengthPrefixedCodec} and {@link SporeBinaryCodec} freezes. The binary size is in
+		 *                    bytes. The spores which were already frozen, and are only written again, aren't reported.
+		 */
+		default void frozen(final String uniqueIdentifier, final int chars, final long nanos) {}
+
+		/**
+		 * A frozen spore was unfrozen with {@link Spore#fromFrozenSpore(String)}. The lazy spores aren't reported, they
+		 * aren't unfrozen right away.
+		 */
+		default void thawed(final int chars, final long nanos) {}
+
+		/**
+		 * How many composites were nested in the frozen spore, counting the outermost one. Reported by the single pass
+		 * tokenizer, the malformed spores are left out.
+		 */
+		default void parsed(final int depth) {}
+
+		/**
+		 * A sporable was built with {@link SporeBuilder#build()}. The builders without any metadata (ex. the collections)
+		 * aren't reported.
+		 */
+		default void built(final String uniqueIdentifier, final int members) {}
+
+		/**
+		 * The classpath was scanned for the {@link Spore.Sporable} classes, see {@link SporableRegistry}
+		 */
+		default void scanned(final SporeScanConfig scanConfig, final int classes, final long nanos) {}
+
+		/**
+		 * {@link SporableRegistry} hadn't remembered this lookup, so it looked in the index (and maybe scanned the classpath
+		 * for it). The remembered lookups aren't reported.
+		 *
+		 * @param found NULL if there's no such class
+		 */
+		default void registryMissed(final String uniqueIdentifier, final Class<?> found, final long nanos) {}
+
+		/**
+		 * The constructor of the sporable was called by {@link Spore#toInstance()}
+		 */
+		default void instantiated(final String uniqueIdentifier, final long nanos) {}
+
+		/**
+		 * The new instance was populated by {@link Spore#toInstance()}. Includes the enclosed sporables.
+		 */
+		default void populated(final String uniqueIdentifier, final long nanos) {}
+
+	}
+
+
+	@FunctionalInterface
+	interface Freezer
+	{
+		void freezeTo(Appendable out) throws IOException;
+	}
+
+
+	/**
+	 * Only the outermost freeze is counted, so the enclosed ones don't pay for it
+	 */
+	private static final class CountingAppendable implements Appendable
+	{
+
+		final private Appendable out;
+
+		private long count;
+
+
+		private CountingAppendable(final Appendable out)
+		{
+			this.out = out;
+		}
+
+
+		@Override
+		public Appendable append(final CharSequence csq) throws IOException
+		{
+			out.append(csq);
+			count += String.valueOf(csq).length();
+			return this;
+		}
+
+
+		@Override
+		public Appendable append(final CharSequence csq, final int start, final int end) throws IOException
+		{
+			out.append(csq, start, end);
+			count += end - start;
+			return this;
+		}
+
+
+		@Override
+		public Appendable append(final char c) throws IOException
+		{
+			out.append(c);
+			count++;
+			return this;
+		}
+
+	}
+
+}
@@ -0,0 +1,326 @@
+package com.ggrec.spore;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * ggrec, 2017-11-21: The built-in {@link SporeMetrics.Listener}, which only adds things up. Totals for the whole process,
+ *                    and the same broken down by the unique identifier of the sporables. Cheap enough to stay installed
+ *                    in production, the counters don't contend between threads.
+ *
+ *                    SporeMetrics.install(recorder = new SporeMetricsRecorder());
+ *                    ...
+ *                    recorder.byUniqueIdentifier().get("User").populateNanos()
+ *
+ * @author ggrec
+ *
+ */
+public final class SporeMetricsRecorder implements SporeMetrics.Listener
+{
+
+	// ====================== 2. Instance Fields =============================
+
+	final private LongAdder freezes = new LongAdder();
+	final private LongAdder charsFrozen = new LongAdder();
+	final private LongAdder freezeNanos = new LongAdder();
+
+	final private LongAdder thaws = new LongAdder();
+	final private LongAdder charsThawed = new LongAdder();
+	final private LongAdder thawNanos = new LongAdder();
+
+	final private LongAccumulator maxParseDepth = new LongAccumulator(Math::max, 0);
+
+	final private LongAdder sporesBuilt = new LongAdder();
+
+	final private LongAdder scans = new LongAdder();
+	final private LongAdder scanNanos = new LongAdder();
+
+	final private LongAdder registryMisses = new LongAdder();
+	final private LongAdder registryMissNanos = new LongAdder();
+
+	final private LongAdder instances = new LongAdder();
+	final private LongAdder instantiationNanos = new LongAdder();
+	final private LongAdder populateNanos = new LongAdder();
+
+	final private ConcurrentMap<String, IdentifierMetrics> byUniqueIdentifier = new ConcurrentHashMap<>();
+
+
+	// ==================== 6. Action Methods ====================
+
+	@Override
+	public void frozen(final String uniqueIdentifier, final int chars, final long nanos)
+	{
+		freezes.increment();
+		charsFrozen.add(chars);
+		freezeNanos.add(nanos);
+
+		if (uniqueIdentifier != null)
+		{
+			final IdentifierMetrics metrics = of(uniqueIdentifier);
+			metrics.freezes.increment();
+			metrics.charsFrozen.add(chars);
+		}
+	}
+
+
+	@Override
+	public void thawed(final int chars, final long nanos)
+	{
+		thaws.increment();
+		charsThawed.add(chars);
+		thawNanos.add(nanos);
+	}
+
+
+	@Override
+	public void parsed(final int depth)
+	{
+		maxParseDepth.accumulate(depth);
+	}
+
+
+	@Override
+	public void built(final String uniqueIdentifier, final int members)
+	{
+		sporesBuilt.increment();
+
+		if (uniqueIdentifier != null)
+			of(uniqueIdentifier).sporesBuilt.increment();
+	}
+
+
+	@Override
+	public void scanned(final SporeScanConfig scanConfig, final int classes, final long nanos)
+	{
+		scans.increment();
+		scanNanos.add(nanos);
+	}
+
+
+	@Override
+	public void registryMissed(final String uniqueIdentifier, final Class<?> found, final long nanos)
+	{
+		registryMisses.increment();
+		registryMissNanos.add(nanos);
+	}
+
+
+	@Override
+	public void instantiated(final String uniqueIdentifier, final long nanos)
+	{
+		instances.increment();
+		instantiationNanos.add(nanos);
+
+		final IdentifierMetrics metrics = of(uniqueIdentifier);
+		metrics.instances.increment();
+		metrics.instantiationNanos.add(nanos);
+	}
+
+
+	@Override
+	public void populated(final String uniqueIdentifier, final long nanos)
+	{
+		populateNanos.add(nanos);
+		of(uniqueIdentifier).populateNanos.add(nanos);
+	}
+
+
+	private IdentifierMetrics of(final String uniqueIdentifier)
+	{
+		final IdentifierMetrics metrics = byUniqueIdentifier.get(uniqueIdentifier);
+		return metrics != null ? metrics : byUniqueIdentifier.computeIfAbsent(uniqueIdentifier, ignored -> new IdentifierMetrics());
+	}
+
+
+	// ==================== 7. Getters & Setters ====================
+
+	public long freezes()
+	{
+		return freezes.sum();
+	}
+
+
+	public long charsFrozen()
+	{
+		return charsFrozen.sum();
+	}
+
+
+	public long freezeNanos()
+	{
+		return freezeNanos.sum();
+	}
+
+
+	public long thaws()
+	{
+		return thaws.sum();
+	}
+
+
+	public long charsThawed()
+	{
+		return charsThawed.sum();
+	}
+
+
+	public long thawNanos()
+	{
+		return thawNanos.sum();
+	}
+
+
+	public long maxParseDepth()
+	{
+		return maxParseDepth.get();
+	}
+
+
+	public long sporesBuilt()
+	{
+		return sporesBuilt.sum();
+	}
+
+
+	public long scans()
+	{
+		return scans.sum();
+	}
+
+
+	public long scanNanos()
+	{
+		return scanNanos.sum();
+	}
+
+
+	public long registryMisses()
+	{
+		return registryMisses.sum();
+	}
+
+
+	public long registryMissNanos()
+	{
+		return registryMissNanos.sum();
+	}
+
+
+	public long instances()
+	{
+		return instances.sum();
+	}
+
+
+	public long instantiationNanos()
+	{
+		return instantiationNanos.sum();
+	}
+
+
+	public long populateNanos()
+	{
+		return populateNanos.sum();
+	}
+
+
+	/**
+	 * A copy, the metrics inside it keep counting
+	 */
+	public Map<String, IdentifierMetrics> byUniqueIdentifier()
+	{
+		return ImmutableMap.copyOf(byUniqueIdentifier);
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return "SporeMetricsRecorder [freezes=" + freezes() + ", charsFrozen=" + charsFrozen() + ", thaws=" + thaws() + ", charsThawed=" + charsThawed() //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				+ ", maxParseDepth=" + maxParseDepth() + ", sporesBuilt=" + sporesBuilt() + ", scans=" + scans() + ", registryMisses=" + registryMisses() //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				+ ", instances=" + instances() + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+
+	// =======================================================
+	// 			 19. Inline Classes
+	// =======================================================
+
+	/**
+	 * Everything which is known about one {@link Spore.Sporable} unique identifier
+	 */
+	public static final class IdentifierMetrics
+	{
+
+		final private LongAdder sporesBuilt = new LongAdder();
+
+		final private LongAdder freezes = new LongAdder();
+
+		final private LongAdder charsFrozen = new LongAdder();
+
+		final private LongAdder instances = new LongAdder();
+
+		final private LongAdder instantiationNanos = new LongAdder();
+
+		final private LongAdder populateNanos = new LongAdder();
+
+
+		private IdentifierMetrics()
+		{
+		}
+
+
+		public long sporesBuilt()
+		{
+			return sporesBuilt.sum();
+		}
+
+
+		/**
+		 * Only the freezes where this sporable was the outermost spore
+		 */
+		public long freezes()
+		{
+			return freezes.sum();
+		}
+
+
+		public long charsFrozen()
+		{
+			return charsFrozen.sum();
+		}
+
+
+		public long instances()
+		{
+			return instances.sum();
+		}
+
+
+		public long instantiationNanos()
+		{
+			return instantiationNanos.sum();
+		}
+
+
+		public long populateNanos()
+		{
+			return populateNanos.sum();
+		}
+
+
+		@Override
+		public String toString()
+		{
+			return "IdentifierMetrics [sporesBuilt=" + sporesBuilt() + ", freezes=" + freezes() + ", charsFrozen=" + charsFrozen() + ", instances=" + instances() //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+					+ ", instantiationNanos=" + instantiationNanos() + ", populateNanos=" + populateNanos() + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+	}
+
+}
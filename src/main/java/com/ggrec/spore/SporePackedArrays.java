@@ -0,0 +1,192 @@
+package com.ggrec.spore;
+
+import java.text.MessageFormat;
+
+/**
+ * ggrec, 2017-11-17: The payload of the packed primitive arrays, see {@link SporeBuilder#appendIntArray(int[])}. The elements are
+ *                    separated by commas, in the same format as the primitive spores, ex. 1,-2,3 or 1.5,NaN,2.0E-9.
+ *                    Unpacked straight into the array, without a spore or a string for each element.
+ *
+ * @author ggrec
+ *
+ */
+final class SporePackedArrays
+{
+
+	// ==================== 1. Static Fields ========================
+
+	static final char SEPARATOR = ',';
+
+
+	// ==================== 3. Static Methods ====================
+
+	static String pack(final int[] values)
+	{
+		final StringBuilder sb = new StringBuilder(values.length * 4);
+
+		for (int i = 0; i < values.length; i++)
+		{
+			if (i > 0)
+				sb.append(SEPARATOR);
+
+			sb.append(values[i]);
+		}
+
+		return sb.toString();
+	}
+
+
+	static String pack(final long[] values)
+	{
+		final StringBuilder sb = new StringBuilder(values.length * 8);
+
+		for (int i = 0; i < values.length; i++)
+		{
+			if (i > 0)
+				sb.append(SEPARATOR);
+
+			sb.append(values[i]);
+		}
+
+		return sb.toString();
+	}
+
+
+	static String pack(final double[] values)
+	{
+		final StringBuilder sb = new StringBuilder(values.length * 8);
+
+		for (int i = 0; i < values.length; i++)
+		{
+			if (i > 0)
+				sb.append(SEPARATOR);
+
+			sb.append(values[i]);
+		}
+
+		return sb.toString();
+	}
+
+
+	static int[] unpackInts(final String payload)
+	{
+		final int[] result = new int[count(payload)];
+
+		int start = 0;
+		for (int i = 0; i < result.length; i++)
+		{
+			final int end = endOfElement(payload, start);
+			final long value = parseLong(payload, start, end);
+
+			if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+				throw notANumber(payload, start, end);
+
+			result[i] = (int) value;
+			start = end + 1;
+		}
+
+		return result;
+	}
+
+
+	static long[] unpackLongs(final String payload)
+	{
+		final long[] result = new long[count(payload)];
+
+		int start = 0;
+		for (int i = 0; i < result.length; i++)
+		{
+			final int end = endOfElement(payload, start);
+			result[i] = parseLong(payload, start, end);
+			start = end + 1;
+		}
+
+		return result;
+	}
+
+
+	static double[] unpackDoubles(final String payload)
+	{
+		final double[] result = new double[count(payload)];
+
+		int start = 0;
+		for (int i = 0; i < result.length; i++)
+		{
+			final int end = endOfElement(payload, start);
+			result[i] = Double.parseDouble(payload.substring(start, end));
+			start = end + 1;
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * The array is allocated once, with the right size
+	 */
+	private static int count(final String payload)
+	{
+		int count = 1;
+
+		for (int i = 0; i < payload.length(); i++)
+			if (payload.charAt(i) == SEPARATOR)
+				count++;
+
+		return count;
+	}
+
+
+	private static int endOfElement(final String payload, final int start)
+	{
+		final int end = payload.indexOf(SEPARATOR, start);
+		return end < 0 ? payload.length() : end;
+	}
+
+
+	/**
+	 * Same as {@link Long#parseLong(String)}, without the substring. Accumulates negatively, so that Long.MIN_VALUE fits.
+	 */
+	private static long parseLong(final String payload, final int start, final int end)
+	{
+		final boolean negative = start < end && payload.charAt(start) == '-';
+		int pos = negative || start < end && payload.charAt(start) == '+' ? start + 1 : start;
+
+		if (pos == end)
+			throw notANumber(payload, start, end);
+
+		final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		final long multiplyLimit = limit / 10;
+
+		long result = 0;
+		for (; pos < end; pos++)
+		{
+			final int digit = payload.charAt(pos) - '0';
+
+			if (digit < 0 || digit > 9 || result < multiplyLimit)
+				throw notANumber(payload, start, end);
+
+			result *= 10;
+
+			if (result < limit + digit)
+				throw notANumber(payload, start, end);
+
+			result -= digit;
+		}
+
+		return negative ? result : -result;
+	}
+
+
+	private static NumberFormatException notANumber(final String payload, final int start, final int end)
+	{
+		return new NumberFormatException(MessageFormat.format("Packed element \"{0}\" at {1,number,#} is not a number", payload.substring(start, end), start)); //$NON-NLS-1$
+	}
+
+
+	// ==================== 4. Constructors ====================
+
+	private SporePackedArrays()
+	{
+	}
+
+}
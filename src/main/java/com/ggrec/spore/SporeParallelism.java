@@ -0,0 +1,111 @@
+package com.ggrec.spore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * ggrec, 2017-11-13: Where and when the big collections are unfrozen in parallel, see {@link SporeParser#nextAsList_Parallel}.
+ *
+ *                    Immutable, every "with" method returns a new configuration. Collections with fewer members than the
+ *                    threshold are unfrozen on the calling thread, because splitting them costs more than it saves.
+ *
+ * ggrec, 2017-11-14: Also used for freezing, see {@link SporeBuilder#appendAsCollection_Parallel}
+ *
+ * @author ggrec
+ *
+ */
+public final class SporeParallelism
+{
+
+	// ==================== 1. Static Fields ========================
+
+	static final int DEFAULT_THRESHOLD = 1024;
+
+	private static final SporeParallelism DEFAULTS = new SporeParallelism(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+
+
+	// ====================== 2. Instance Fields =============================
+
+	final private ForkJoinPool pool;
+
+	final private int threshold;
+
+
+	// ==================== 3. Static Methods ====================
+
+	/**
+	 * The common pool, and the default threshold
+	 */
+	public static SporeParallelism defaults()
+	{
+		return DEFAULTS;
+	}
+
+
+	public static SporeParallelism on(final ForkJoinPool pool)
+	{
+		return new SporeParallelism(checkNotNull(pool), DEFAULT_THRESHOLD);
+	}
+
+
+	// ==================== 4. Constructors ====================
+
+	private SporeParallelism(final ForkJoinPool pool, final int threshold)
+	{
+		this.pool = pool;
+		this.threshold = threshold;
+	}
+
+
+	// ==================== 6. Action Methods ====================
+
+	/**
+	 * @param threshold the smallest collection which is unfrozen in parallel
+	 */
+	public SporeParallelism withThreshold(final int threshold)
+	{
+		checkArgument(threshold >= 0, "Invalid threshold %s", threshold); //$NON-NLS-1$
+		return new SporeParallelism(pool, threshold);
+	}
+
+
+	boolean isWorthIt(final int size)
+	{
+		return size >= threshold && pool.getParallelism() > 1;
+	}
+
+
+	/**
+	 * Runs the task in the pool, so that the parallel streams inside it are split among the workers of the pool instead of
+	 * the common pool. Waits for the result.
+	 */
+	<R> R invoke(final Supplier<R> task)
+	{
+		return pool.submit(task::get).join();
+	}
+
+
+	// ==================== 7. Getters & Setters ====================
+
+	public ForkJoinPool pool()
+	{
+		return pool;
+	}
+
+
+	public int threshold()
+	{
+		return threshold;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return "SporeParallelism [pool=" + pool + ", threshold=" + threshold + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+}
@@ -5,33 +5,71 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.MessageFormat;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+import com.ggrec.spore.Spore.DoubleSpore;
 import com.ggrec.spore.Spore.ISporable;
+import com.ggrec.spore.Spore.LongSpore;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.PeekingIterator;
 
 public class SporeParser
 {
 
 	final private Iterator<Spore> itrEnclosedSpores;
 
+	/**
+	 * Only counts the spores read from a {@link SporeReader}. The {@link MemberCursor} knows its own position.
+	 */
+	private int streamedPosition;
+
 
 	public SporeParser(final Spore spore)
 	{
-		this.itrEnclosedSpores = spore.iterator();
+		// ggrec, 2017-11-01: Peeking, for nextIsNull()
+		// ggrec, 2017-11-10: By index, for skip() and reset()
+		this.itrEnclosedSpores = new MemberCursor(spore);
+	}
+
+
+	/**
+	 * ggrec, 2017-10-16: Parses the outermost spore of the reader, without creating it. Only the spore which is currently
+	 *                    being unfrozen is kept in memory. Collections are streamed element by element.
+	 */
+	public SporeParser(final SporeReader reader)
+	{
+		try
+		{
+			this.itrEnclosedSpores = reader.members();
+		}
+		catch (final IOException ex)
+		{
+			throw new UncheckedIOException(ex);
+		}
 	}
 
 
@@ -41,6 +79,100 @@ public class SporeParser
 	}
 
 
+	/**
+	 * ggrec, 2017-11-01: Checks the next spore without reading it. The primitive accessors like {@link #nextInt()} can't return
+	 *                    NULL, so call this first if the field is nullable.
+	 *
+	 * @see #peekIsNull()
+	 */
+	final public boolean nextIsNull()
+	{
+		return peekIsNull();
+	}
+
+
+	/**
+	 * ggrec, 2017-11-10: Same as {@link #nextIsNull()}, named like the other methods which don't move the parser
+	 *
+	 * @throws NoSuchElementException if there is no next spore
+	 */
+	final public boolean peekIsNull()
+	{
+		if (itrEnclosedSpores instanceof SporeReader.Members)
+			return ((SporeReader.Members) itrEnclosedSpores).nextIsNull();
+
+		return ((MemberCursor) itrEnclosedSpores).peek().isPayloadNull();
+	}
+
+
+	/**
+	 * ggrec, 2017-11-10: Moves past the next spores without unfreezing them. When the parsed spore was read from a
+	 *                    {@link SporeReader}, the skipped spores aren't even created.
+	 * ggrec, 2017-11-22: A lazily unfrozen spore only records where its direct members are, the first time it's walked.
+	 *                    The skipped members are never created, not even their substrings.
+	 *
+	 * @throws NoSuchElementException if there are fewer spores left
+	 */
+	final public SporeParser skip(final int count)
+	{
+		checkArgument(count >= 0, "Cannot skip %s spores", count); //$NON-NLS-1$
+
+		if (itrEnclosedSpores instanceof SporeReader.Members)
+			for (int i = 0; i < count; i++)
+			{
+				((SporeReader.Members) itrEnclosedSpores).skipNext();
+				streamedPosition++;
+			}
+		else
+			((MemberCursor) itrEnclosedSpores).skip(count);
+
+		return this;
+	}
+
+
+	/**
+	 * @return the index of the next spore, which is also the number of spores read or skipped so far
+	 */
+	final public int position()
+	{
+		return itrEnclosedSpores instanceof SporeReader.Members ? streamedPosition : ((MemberCursor) itrEnclosedSpores).position;
+	}
+
+
+	/**
+	 * Remembers the position, for {@link #reset()}
+	 *
+	 * @throws UnsupportedOperationException if the parser reads from a {@link SporeReader}, which can't go back
+	 */
+	final public SporeParser mark()
+	{
+		cursor("mark").mark = position(); //$NON-NLS-1$
+		return this;
+	}
+
+
+	/**
+	 * Goes back to the last {@link #mark()}, or to the first spore if there's no mark
+	 *
+	 * @throws UnsupportedOperationException if the parser reads from a {@link SporeReader}, which can't go back
+	 */
+	final public SporeParser reset()
+	{
+		final MemberCursor cursor = cursor("reset"); //$NON-NLS-1$
+		cursor.position = cursor.mark;
+		return this;
+	}
+
+
+	private MemberCursor cursor(final String operation)
+	{
+		if (itrEnclosedSpores instanceof SporeReader.Members)
+			throw new UnsupportedOperationException(MessageFormat.format("Cannot {0} a parser which reads from a {1}", operation, SporeReader.class.getSimpleName())); //$NON-NLS-1$
+
+		return (MemberCursor) itrEnclosedSpores;
+	}
+
+
 	final public <T> T nextAs_FromString(final Function<String, T> unfreezer)
 	{
 		final String nextPayload_ToString = nextAs_FromSpore(Spore::toString);
@@ -68,12 +200,19 @@ public class SporeParser
 	
 	private Optional<Stream<Spore>> nextAsSporeStream()
 	{
+		// The elements of a streamed collection are read one by one, instead of reading the whole collection spore first
+		if (itrEnclosedSpores instanceof SporeReader.Members)
+		{
+			streamedPosition++;
+			return ((SporeReader.Members) itrEnclosedSpores).nextAsSporeStream();
+		}
+
 		final Spore nextSpore = nextAsSpore();
 
 		if (nextSpore.isPayloadNull())
 			return Optional.empty();
 
-		if (Spore.EMPTY_COLLECTION_PAYLOAD.equals(nextSpore.toString()))
+		if (nextSpore.isPayloadEmptyCollection())
 			return Optional.of(Stream.of());
 
 		// Remember, each collection is another spore. So we need to parse it
@@ -112,36 +251,109 @@ public class SporeParser
 	
 	/**
 	 * TODO-ggrec, 2017-03-01: Would be nice to have a collector, so we can specify what map instance we want in the end 
+	 * 
+	 * ggrec, 2017-11-16: Done, see the overloads. This one is a pre-sized HashMap.
 	 */
 	final public <K, V> Map<K, V> nextAsMap(final Function<Spore, K> keyUnfreezer, final Function<Spore, V> valUnfreezer)
 	{
-		return nextAsSporeStream().map(sporeStream -> {
+		return nextAsMap(keyUnfreezer, valUnfreezer, Maps::newHashMapWithExpectedSize);
+	}
 
-			final Map<K, V> result = new HashMap<>();
 
-			/*
-			 * Map values and keys are stored in a linear fashion in the spore. The enclosed spores are
-			 * parsed two by two, each pair being a map entry.
-			 */
-			final ImmutableList<Spore> sporeList = sporeStream.collect(toImmutableList());
-			if (sporeList.size() >= 2)
-			{
-				checkArgument(sporeList.size() % 2 == 0, "You are not storing the map correctly"); //$NON-NLS-1$
+	/**
+	 * ggrec, 2017-11-16: The entries are put straight into the map, without collecting the enclosed spores first.
+	 *                    Ex. {@code size -> new EnumMap<>(Currency.class)}, {@code Maps::newLinkedHashMapWithExpectedSize}
+	 * 
+	 * @param mapFactory gets the number of entries. 0 for the spores read from a {@link SporeReader}, which aren't counted.
+	 * @return NULL if the appended map was NULL in the first place
+	 */
+	final public <K, V, M extends Map<K, V>> M nextAsMap(final Function<Spore, K> keyUnfreezer, final Function<Spore, V> valUnfreezer, final IntFunction<M> mapFactory)
+	{
+		return nextAsMapEntries(keyUnfreezer, valUnfreezer, mapFactory, Map::put);
+	}
+
+
+	/**
+	 * ggrec, 2017-11-16: Each entry is given to the collector as soon as it's unfrozen. The entries may have NULL keys and values.
+	 * 
+	 * @return NULL if the appended map was NULL in the first place
+	 */
+	final public <K, V, R> R nextAsMap(final Function<Spore, K> keyUnfreezer, final Function<Spore, V> valUnfreezer, final Collector<? super Map.Entry<K, V>, ?, R> collector)
+	{
+		return nextAsMap_Collected(keyUnfreezer, valUnfreezer, collector);
+	}
+
+
+	/**
+	 * NULL keys and values aren't supported by ImmutableMap
+	 * 
+	 * @return NULL if the appended map was NULL in the first place
+	 */
+	final public <K, V> ImmutableMap<K, V> nextAsImmutableMap(final Function<Spore, K> keyUnfreezer, final Function<Spore, V> valUnfreezer)
+	{
+		final ImmutableMap.Builder<K, V> mapB = nextAsMapEntries(keyUnfreezer, valUnfreezer, size -> ImmutableMap.builder(), ImmutableMap.Builder::put);
+		return mapB == null ? null : mapB.build();
+	}
+
+
+	private <K, V, A, R> R nextAsMap_Collected(final Function<Spore, K> keyUnfreezer, final Function<Spore, V> valUnfreezer, final Collector<? super Map.Entry<K, V>, A, R> collector)
+	{
+		final BiConsumer<A, ? super Map.Entry<K, V>> accumulator = collector.accumulator();
+
+		final A container = nextAsMapEntries(keyUnfreezer, valUnfreezer, size -> collector.supplier().get(),
+				(result, key, val) -> accumulator.accept(result, new AbstractMap.SimpleImmutableEntry<>(key, val)));
+
+		return container == null ? null : collector.finisher().apply(container);
+	}
 
-				for (int i = 0; i < sporeList.size() - 1; i += 2)
-				{
-					final Spore sporeKey = sporeList.get(i);
-					final Spore sporeVal = sporeList.get(i + 1);
 
-					result.put(
-							sporeKey.isPayloadNull() ? null : keyUnfreezer.apply(sporeKey), 
-							sporeVal.isPayloadNull() ? null : valUnfreezer.apply(sporeVal));
-				}
+	/**
+	 * Map values and keys are stored in a linear fashion in the spore. The enclosed spores are parsed two by two, each pair
+	 * being a map entry.
+	 */
+	private <K, V, A> A nextAsMapEntries(final Function<Spore, K> keyUnfreezer, final Function<Spore, V> valUnfreezer, final IntFunction<A> containerFactory, final EntryAdder<A, K, V> adder)
+	{
+		// Streamed collections can't be counted
+		if (itrEnclosedSpores instanceof SporeReader.Members)
+			return nextAsSporeStream().map(sporeStream -> addEntries(containerFactory.apply(0), sporeStream.iterator(), keyUnfreezer, valUnfreezer, adder)).orElse(null);
+
+		final Spore nextSpore = nextAsSpore();
+
+		if (nextSpore.isPayloadNull())
+			return null;
+
+		return addEntries(containerFactory.apply(nextSpore.memberCount() / 2), nextSpore.iterator(), keyUnfreezer, valUnfreezer, adder);
+	}
+
+
+	/**
+	 * ggrec, 2017-11-22: The same for the counted and the streamed spores. A lone spore is an empty map, like the old parser
+	 *                    did, the others must come in pairs.
+	 */
+	private static <K, V, A> A addEntries(final A result, final Iterator<Spore> sporeItr, final Function<Spore, K> keyUnfreezer, final Function<Spore, V> valUnfreezer, final EntryAdder<A, K, V> adder)
+	{
+		for (boolean first = true; sporeItr.hasNext(); first = false)
+		{
+			final Spore sporeKey = sporeItr.next();
+
+			if (!sporeItr.hasNext())
+			{
+				checkArgument(first, "You are not storing the map correctly"); //$NON-NLS-1$
+				break;
 			}
-					
-			return result;
-			
-		}).orElse(null);
+
+			addEntry(result, sporeKey, sporeItr.next(), keyUnfreezer, valUnfreezer, adder);
+		}
+
+		return result;
+	}
+
+
+	private static <K, V, A> void addEntry(final A result, final Spore sporeKey, final Spore sporeVal, final Function<Spore, K> keyUnfreezer, final Function<Spore, V> valUnfreezer, final EntryAdder<A, K, V> adder)
+	{
+		adder.add(result, 
+				sporeKey.isPayloadNull() ? null : keyUnfreezer.apply(sporeKey), 
+				sporeVal.isPayloadNull() ? null : valUnfreezer.apply(sporeVal));
 	}
 
 	
@@ -169,6 +381,81 @@ public class SporeParser
 	}
 	
 	
+	/**
+	 * ggrec, 2017-11-13: Same as {@link #nextAsList(Function)}, but big collections are unfrozen in parallel, in the common pool.
+	 *                    The order of the elements is kept. The unfreezer must be thread safe.
+	 */
+	final public <T> ImmutableList<T> nextAsList_Parallel(final Function<Spore, T> unfreezer)
+	{
+		return nextAsCollection_Parallel(unfreezer, toImmutableList(), SporeParallelism.defaults());
+	}
+
+
+	final public <T> ImmutableList<T> nextAsList_Parallel(final Function<Spore, T> unfreezer, final SporeParallelism parallelism)
+	{
+		return nextAsCollection_Parallel(unfreezer, toImmutableList(), parallelism);
+	}
+
+
+	/**
+	 * Same as {@link #nextAsCollection(Function, Collector)}, but collections with at least {@link SporeParallelism#threshold()}
+	 * elements are split among the workers of {@link SporeParallelism#pool()}. The elements are collected in their order,
+	 * unless the collector itself is unordered.
+	 *
+	 * Collections read from a {@link SporeReader} are streamed, and can't be split, so they are unfrozen on this thread.
+	 *
+	 * @return NULL if the appended collection was NULL in the first place
+	 */
+	final public <T, R> R nextAsCollection_Parallel(final Function<Spore, T> unfreezer, final Collector<? super T, ?, R> collector, final SporeParallelism parallelism)
+	{
+		checkNotNull(parallelism);
+
+		if (itrEnclosedSpores instanceof SporeReader.Members)
+			return nextAsCollection(unfreezer, collector);
+
+		final Spore nextSpore = nextAsSpore();
+
+		if (nextSpore.isPayloadNull())
+			return null;
+
+		if (!parallelism.isWorthIt(nextSpore.memberCount()))
+			return new SporeParser(nextSpore).nextAsCollection_Members(unfreezer, collector);
+
+		// The spliterator of the composite spores is sized, so it's split evenly
+		return parallelism.invoke(() -> StreamSupport.stream(nextSpore.spliterator(), true).map(unfreezer).collect(collector));
+	}
+
+
+	/**
+	 * ggrec, 2017-11-13: Same as {@link #nextAsStream(Function)}, but the stream is parallel if the collection has at least
+	 *                    {@link SporeParallelism#DEFAULT_THRESHOLD} elements. It runs in the pool of the thread which calls the
+	 *                    terminal operation, usually the common pool. Use {@link #nextAsCollection_Parallel} to pick the pool.
+	 */
+	final public <T> Stream<T> nextAsStream_Parallel(final Function<Spore, T> unfreezer)
+	{
+		if (itrEnclosedSpores instanceof SporeReader.Members)
+			return nextAsStream(unfreezer);
+
+		final Spore nextSpore = nextAsSpore();
+
+		if (nextSpore.isPayloadNull())
+			return Stream.empty();
+
+		final boolean parallel = SporeParallelism.defaults().isWorthIt(nextSpore.memberCount());
+		return StreamSupport.stream(nextSpore.spliterator(), parallel).map(unfreezer);
+	}
+
+
+	/**
+	 * The members of the parsed spore itself, as a collection
+	 */
+	private <T, R> R nextAsCollection_Members(final Function<Spore, T> unfreezer, final Collector<? super T, ?, R> collector)
+	{
+		final Iterable<Spore> iterable = () -> itrEnclosedSpores;
+		return StreamSupport.stream(iterable.spliterator(), false).map(unfreezer).collect(collector);
+	}
+
+
 	/**
 	 * Populates the sporable using the concrete implementation of {@link ISporable#populateFromSpore(Spore)}
 	 */
@@ -190,6 +477,15 @@ public class SporeParser
 	}
 
 
+	/**
+	 * ggrec, 2017-10-27: Same as above, but the instance is created by {@link SporableInstantiator}
+	 */
+	final public <W extends ISporable> W parseNextSporeAsSporable(final Class<W> sporableClass)
+	{
+		return parseNextSporeAsSporable(SporableInstantiator.<W>of(sporableClass));
+	}
+
+
 	/**
 	 * If the next spore has a payload, a sporable instance will be created using the parameter, then populated by the API implementation 
 	 */
@@ -212,7 +508,12 @@ public class SporeParser
 
 	final public Spore nextAsSpore()
 	{
-		return itrEnclosedSpores.next();
+		final Spore nextSpore = itrEnclosedSpores.next();
+
+		if (itrEnclosedSpores instanceof SporeReader.Members)
+			streamedPosition++;
+
+		return nextSpore;
 	}
 
 
@@ -240,9 +541,114 @@ public class SporeParser
 	}
 
 
+	/**
+	 * ggrec, 2017-11-01: Parsed straight from the payload, without boxing
+	 *
+	 * @throws IllegalArgumentException if the next spore is NULL, see {@link #nextIsNull()}
+	 */
+	final public int nextInt()
+	{
+		final Spore nextSpore = nextSpore_NotNull();
+
+		// ggrec, 2017-11-22: The appended primitives aren't formatted only to be parsed again
+		if (nextSpore instanceof LongSpore)
+		{
+			final long value = ((LongSpore) nextSpore).value();
+
+			if (value != (int) value)
+				throw new NumberFormatException(MessageFormat.format("For input string: \"{0}\"", nextSpore.toString())); //$NON-NLS-1$
+
+			return (int) value;
+		}
+
+		return Integer.parseInt(nextSpore.toString());
+	}
+
+
+	/**
+	 * @throws IllegalArgumentException if the next spore is NULL, see {@link #nextIsNull()}
+	 */
+	final public long nextLong()
+	{
+		final Spore nextSpore = nextSpore_NotNull();
+		return nextSpore instanceof LongSpore ? ((LongSpore) nextSpore).value() : Long.parseLong(nextSpore.toString());
+	}
+
+
+	/**
+	 * @throws IllegalArgumentException if the next spore is NULL, see {@link #nextIsNull()}
+	 */
+	final public double nextDouble()
+	{
+		final Spore nextSpore = nextSpore_NotNull();
+
+		// The long to double conversion rounds the same way as parsing the formatted long
+		if (nextSpore instanceof DoubleSpore)
+			return ((DoubleSpore) nextSpore).value();
+		else if (nextSpore instanceof LongSpore)
+			return ((LongSpore) nextSpore).value();
+
+		return Double.parseDouble(nextSpore.toString());
+	}
+
+
+	/**
+	 * @throws IllegalArgumentException if the next spore is NULL, see {@link #nextIsNull()}
+	 */
+	final public boolean nextBoolean()
+	{
+		return Boolean.parseBoolean(nextSpore_NotNull().toString());
+	}
+
+
+	private Spore nextSpore_NotNull()
+	{
+		final Spore nextSpore = nextAsSpore();
+
+		if (nextSpore.isPayloadNull())
+			throw new IllegalArgumentException("The next spore is NULL. Check nextIsNull() before reading a primitive."); //$NON-NLS-1$
+
+		return nextSpore;
+	}
+
+
+	/**
+	 * ggrec, 2017-11-17: Unpacked straight into the array, see {@link SporeBuilder#appendIntArray(int[])}
+	 * 
+	 * @return NULL if the appended array was NULL in the first place
+	 */
+	final public int[] nextAsIntArray()
+	{
+		return nextAsPackedArray(SporePackedArrays::unpackInts, new int[0]);
+	}
+
+
+	final public long[] nextAsLongArray()
+	{
+		return nextAsPackedArray(SporePackedArrays::unpackLongs, new long[0]);
+	}
+
+
+	final public double[] nextAsDoubleArray()
+	{
+		return nextAsPackedArray(SporePackedArrays::unpackDoubles, new double[0]);
+	}
+
+
+	private <A> A nextAsPackedArray(final Function<String, A> unpacker, final A emptyArray)
+	{
+		final Spore nextSpore = nextAsSpore();
+
+		if (nextSpore.isPayloadNull())
+			return null;
+
+		return nextSpore.isPayloadEmptyCollection() ? emptyArray : unpacker.apply(nextSpore.toString());
+	}
+
+
 	final public Locale nextAsLocale()
 	{
-		return nextAs_FromString(Locale::forLanguageTag);
+		return nextAs(Locale.class);
 	}
 
 
@@ -254,26 +660,170 @@ public class SporeParser
 
 	final public UUID nextAsUUID()
 	{
-		return nextAs_FromString(UUID::fromString);
+		return nextAs(UUID.class);
 	}
 
 
 	final public LocalDate nextAsDate()
 	{
-		return nextAs_FromString(spore -> LocalDate.parse(spore));
+		return nextAs(LocalDate.class);
+	}
+
+
+	final public Instant nextAsInstant()
+	{
+		return nextAs(Instant.class);
 	}
 
 
 	/**
 	 * Returns an enum based on its stored ordinal.
+	 * 
+	 * ggrec, 2017-11-03: Or by its name, if {@link SporeCodecs#enumByName(Class)} is registered for it
 	 */
 	final public <E extends Enum<E>> E nextAsEnum(final Class<E> enumClass)
 	{
-		final Integer next = nextAsInteger();
-		if (next != null)
-			return enumClass.getEnumConstants()[next];
+		return nextAs(enumClass);
+	}
+
+
+	/**
+	 * ggrec, 2017-11-03: Unfrozen by the {@link SporeCodec} registered for the type, see {@link SporeCodecs}
+	 * 
+	 * @throws IllegalArgumentException if the type has no codec
+	 */
+	final public <T> T nextAs(final Class<T> type)
+	{
+		final SporeCodec<T> codec = SporeCodecs.forClass(type);
+
+		if (codec == null)
+			throw new IllegalArgumentException(MessageFormat.format("No {0} is registered for {1}", SporeCodec.class.getSimpleName(), type.getName())); //$NON-NLS-1$
+
+		return nextAs_FromSpore(codec::unfreeze);
+	}
+
+
+
+	// =======================================================
+	// 			 19. Inline Classes 
+	// =======================================================
+
+	@FunctionalInterface
+	private interface EntryAdder<A, K, V>
+	{
+		void add(A result, K key, V val);
+	}
+
+
+	/**
+	 * ggrec, 2017-11-10: Walks the enclosed spores by index, with {@link Spore#memberAt(int)}, so it can jump in both directions
+	 * ggrec, 2017-11-22: The spores which aren't {@link Spore#isIndexed() indexed} would walk their iterator for every
+	 *                    index. Those are walked once, and the members seen so far are kept for {@link SporeParser#reset()}.
+	 */
+	private static final class MemberCursor implements PeekingIterator<Spore>
+	{
+
+		final private Spore spore;
+
+		/**
+		 * Only for the indexed spores, counted once
+		 */
+		final private int count;
+
+		/**
+		 * NULL for the indexed spores
+		 */
+		final private Iterator<Spore> unindexed;
+
+		final private List<Spore> walked;
+
+		private int position;
+
+		private int mark;
+
+
+		private MemberCursor(final Spore spore)
+		{
+			this.spore = spore;
+
+			if (spore.isIndexed())
+			{
+				this.count = spore.memberCount();
+				this.unindexed = null;
+				this.walked = null;
+			}
+			else
+			{
+				this.count = -1;
+				this.unindexed = spore.iterator();
+				this.walked = new ArrayList<>();
+			}
+		}
+
+
+		@Override
+		public boolean hasNext()
+		{
+			return hasMemberAt(position);
+		}
+
+
+		@Override
+		public Spore peek()
+		{
+			// Past the end, it's up to the iterator of the spore. The atomic spores give themselves, the others throw.
+			if (!hasNext())
+				return spore.iterator().next();
+
+			return unindexed == null ? spore.memberAt(position) : walked.get(position);
+		}
+
+
+		@Override
+		public Spore next()
+		{
+			final Spore nextSpore = peek();
+			position++;
+			return nextSpore;
+		}
+
+
+		@Override
+		public void remove()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+
+		private void skip(final int count)
+		{
+			if (count > 0 && !hasMemberAt(position + count - 1))
+				throw new NoSuchElementException(MessageFormat.format("Cannot skip {0} spores, only {1} left", count, remaining())); //$NON-NLS-1$
+
+			position += count;
+		}
+
+
+		private boolean hasMemberAt(final int index)
+		{
+			if (unindexed == null)
+				return index < count;
+
+			while (walked.size() <= index && unindexed.hasNext())
+				walked.add(unindexed.next());
+
+			return index < walked.size();
+		}
+
+
+		/**
+		 * Only after {@link #hasMemberAt(int)} said no, when the unindexed spores were walked to the end
+		 */
+		private int remaining()
+		{
+			return (unindexed == null ? count : walked.size()) - position;
+		}
 
-		return null;
 	}
 
-}
\ No newline at end of file
+}
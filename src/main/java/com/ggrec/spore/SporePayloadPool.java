@@ -0,0 +1,183 @@
+package com.ggrec.spore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.ggrec.spore.Spore.AtomicSpore;
+
+/**
+ * ggrec, 2017-11-08: Shares the atomic spores which have the same payload, so a big unfrozen model which repeats the same
+ *                    status codes, currencies and metadata entries keeps only one spore and one string for each of them.
+ *                    Off by default, turn it on with {@link #install(SporePayloadPool)}. Used by every unfreezing path and by
+ *                    {@link SporeBuilder#append(String)}.
+ *
+ *                    The pool is a fixed size table without locks. Each payload has one slot, and a new payload replaces the
+ *                    old one in its slot, so the pool never grows beyond its size. Long payloads are never pooled, they are
+ *                    rarely repeated.
+ *
+ * @author ggrec
+ *
+ */
+public final class SporePayloadPool
+{
+
+	// ==================== 1. Static Fields ========================
+
+	private static final int DEFAULT_MAX_PAYLOAD_LENGTH = 32;
+
+	private static volatile SporePayloadPool installed;
+
+
+	// ====================== 2. Instance Fields =============================
+
+	final private AtomicReferenceArray<AtomicSpore> slots;
+
+	final private int mask;
+
+	final private int maxPayloadLength;
+
+	final private LongAdder hits = new LongAdder();
+
+	final private LongAdder misses = new LongAdder();
+
+
+	// ==================== 3. Static Methods ====================
+
+	/**
+	 * @param maxEntries rounded up to a power of two
+	 */
+	public static SporePayloadPool create(final int maxEntries)
+	{
+		return create(maxEntries, DEFAULT_MAX_PAYLOAD_LENGTH);
+	}
+
+
+	public static SporePayloadPool create(final int maxEntries, final int maxPayloadLength)
+	{
+		checkArgument(maxEntries > 0 && maxEntries <= 1 << 30, "Invalid pool size %s", maxEntries); //$NON-NLS-1$
+		checkArgument(maxPayloadLength >= 0, "Invalid payload length %s", maxPayloadLength); //$NON-NLS-1$
+
+		return new SporePayloadPool(Integer.highestOneBit(maxEntries - 1) << 1, maxPayloadLength);
+	}
+
+
+	/**
+	 * @param pool NULL turns pooling off
+	 */
+	public static void install(final SporePayloadPool pool)
+	{
+		installed = pool;
+	}
+
+
+	/**
+	 * @return NULL if pooling is off
+	 */
+	public static SporePayloadPool installed()
+	{
+		return installed;
+	}
+
+
+	// ==================== 4. Constructors ====================
+
+	private SporePayloadPool(final int size, final int maxPayloadLength)
+	{
+		this.slots = new AtomicReferenceArray<>(Math.max(size, 1));
+		this.mask = slots.length() - 1;
+		this.maxPayloadLength = maxPayloadLength;
+	}
+
+
+	// ==================== 6. Action Methods ====================
+
+	/**
+	 * @return the pooled spore with the payload source[start, end), or NULL if the payload is too long to be pooled. The substring
+	 *         is only created if the payload isn't already pooled.
+	 */
+	AtomicSpore intern(final String source, final int start, final int end)
+	{
+		final int length = end - start;
+		if (length > maxPayloadLength)
+			return null;
+
+		int hash = 0;
+		for (int i = start; i < end; i++)
+			hash = 31 * hash + source.charAt(i);
+
+		final int slot = (hash ^ (hash >>> 16)) & mask;
+
+		final AtomicSpore pooled = slots.get(slot);
+		if (pooled != null)
+		{
+			final String pooledPayload = pooled.toString();
+
+			if (pooledPayload.length() == length && source.regionMatches(start, pooledPayload, 0, length))
+			{
+				hits.increment();
+				return pooled;
+			}
+		}
+
+		misses.increment();
+
+		final AtomicSpore newSpore = AtomicSpore.create(start == 0 && end == source.length() ? source : source.substring(start, end));
+		slots.lazySet(slot, newSpore);
+		return newSpore;
+	}
+
+
+	/**
+	 * Forgets the pooled spores and the statistics
+	 */
+	public void clear()
+	{
+		for (int i = 0; i < slots.length(); i++)
+			slots.set(i, null);
+
+		hits.reset();
+		misses.reset();
+	}
+
+
+	// ==================== 7. Getters & Setters ====================
+
+	public int maxEntries()
+	{
+		return slots.length();
+	}
+
+
+	public long hits()
+	{
+		return hits.sum();
+	}
+
+
+	public long misses()
+	{
+		return misses.sum();
+	}
+
+
+	/**
+	 * @return between 0 and 1, or 0 if nothing was looked up yet
+	 */
+	public double hitRate()
+	{
+		final long hitCount = hits();
+		final long total = hitCount + misses();
+
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return "SporePayloadPool [maxEntries=" + maxEntries() + ", hits=" + hits() + ", misses=" + misses() + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+}
@@ -0,0 +1,632 @@
+package com.ggrec.spore;
+
+import static com.ggrec.spore.Spore.EMPTY_COLLECTION_PAYLOAD;
+import static com.ggrec.spore.Spore.NULL_PAYLOAD;
+import static com.ggrec.spore.Spore.SPORE_MEMBER_SEPARATOR;
+import static com.ggrec.spore.Spore.SPORE_PREFIX;
+import static com.ggrec.spore.Spore.SPORE_SUFFIX;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.text.MessageFormat;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.ggrec.spore.Spore.AtomicSpore;
+import com.ggrec.spore.Spore.CompositeSpore;
+import com.ggrec.spore.Spore.SporeMetadata;
+import com.ggrec.spore.Spore.SporeMetadataType;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * ggrec, 2017-10-16: Pull reader for frozen spores which are too big to be kept in one string. Works like StAX: you ask for
+ *                    the next {@link Event}, and then for the payload or the metadata of that event. Only a small buffer and
+ *                    the current payload are kept in memory.
+ *
+ *                    Use {@link SporeParser#SporeParser(SporeReader)} if you want the usual parser API on top of it.
+ *
+ *                    The reader is strict, like {@link SporeTokenizer}. Payloads containing delimiters are reported as malformed,
+ *                    instead of being guessed by the brace counting parser.
+ *
+ * @author ggrec
+ *
+ */
+public final class SporeReader
+{
+
+	// ==================== 1. Static Fields ========================
+
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The prefix ends with the first char of the suffix, so {| followed by this is also a suffix
+	 */
+	private static final String SPORE_SUFFIX_AFTER_PREFIX = SPORE_SUFFIX.substring(1);
+
+
+	// ====================== 2. Instance Fields =============================
+
+	final private Readable source;
+
+	final private CharBuffer buffer;
+
+	private boolean endOfSource;
+
+	private long offset;
+
+	final private StringBuilder payloadB = new StringBuilder();
+
+	// Where the lexer is
+	private boolean started;
+
+	private int openedSpores;
+
+	private boolean afterMember;
+
+	private boolean firstMember;
+
+	private String lexedPayload;
+
+	private SporeMetadata lexedMetadata;
+
+	// What was peeked, but not consumed yet
+	private Event peekedEvent;
+
+	private String peekedPayload;
+
+	private SporeMetadata peekedMetadata;
+
+	// What was consumed
+	private Event event;
+
+	private String payload;
+
+	private SporeMetadata metadata;
+
+	/**
+	 * How many spores were started, and not ended yet, by the consumed events
+	 */
+	private int depth;
+
+
+	// ==================== 4. Constructors ====================
+
+	public SporeReader(final Reader reader)
+	{
+		this.source = checkNotNull(reader);
+		this.buffer = CharBuffer.allocate(BUFFER_SIZE);
+		this.buffer.flip();
+	}
+
+
+	/**
+	 * The chars are read in place, from the current position of the buffer to its limit. The buffer itself is not modified.
+	 */
+	public SporeReader(final CharBuffer chars)
+	{
+		this.source = null;
+		this.buffer = checkNotNull(chars).duplicate();
+		this.endOfSource = true;
+	}
+
+
+	// ==================== 6. Action Methods ====================
+
+	public boolean hasNext() throws IOException
+	{
+		return peek() != null;
+	}
+
+
+	/**
+	 * @return NULL if there are no more events
+	 */
+	public Event peek() throws IOException
+	{
+		if (peekedEvent == null && !isFinished())
+		{
+			peekedEvent = advance();
+			peekedPayload = lexedPayload;
+			peekedMetadata = lexedMetadata;
+		}
+
+		return peekedEvent;
+	}
+
+
+	public Event next() throws IOException
+	{
+		if (peek() == null)
+			throw new NoSuchElementException();
+
+		event = peekedEvent;
+		payload = peekedPayload;
+		metadata = peekedMetadata;
+		peekedEvent = null;
+
+		if (event == Event.START_SPORE)
+			depth++;
+		else if (event == Event.END_SPORE)
+			depth--;
+
+		return event;
+	}
+
+
+	/**
+	 * @return the payload of the current {@link Event#ATOMIC}, {@link Event#NULL} or {@link Event#EMPTY_COLLECTION} event, exactly as it was frozen
+	 */
+	public String payload()
+	{
+		checkState(event == Event.ATOMIC || event == Event.NULL || event == Event.EMPTY_COLLECTION, "No payload for %s", event); //$NON-NLS-1$
+		return payload;
+	}
+
+
+	/**
+	 * @return the version of the current {@link Event#METADATA} event
+	 */
+	public String version()
+	{
+		return metadata().version();
+	}
+
+
+	/**
+	 * @return the unique identifier of the current {@link Event#METADATA} event
+	 */
+	public String uniqueIdentifier()
+	{
+		return metadata().uniqueIdentifier();
+	}
+
+
+	SporeMetadata metadata()
+	{
+		checkState(event == Event.METADATA, "No metadata for %s", event); //$NON-NLS-1$
+		return metadata;
+	}
+
+
+	/**
+	 * Starts reading the outermost spore, and gives back its enclosed spores one by one. The metadata is skipped.
+	 */
+	Members members() throws IOException
+	{
+		if (next() != Event.START_SPORE)
+			throw new IllegalArgumentException("The frozen spore is not a composite spore"); //$NON-NLS-1$
+
+		if (peek() == Event.METADATA)
+			next();
+
+		return new Members();
+	}
+
+
+	// ==================== 6.1. Lexer ====================
+
+	private boolean isFinished()
+	{
+		return started && openedSpores == 0;
+	}
+
+
+	private Event advance() throws IOException
+	{
+		lexedPayload = null;
+		lexedMetadata = null;
+
+		if (!started)
+		{
+			started = true;
+
+			if (lookingAt(SPORE_PREFIX, 0))
+				return startSpore();
+
+			// Not a composite, so the whole thing is one atomic payload
+			payloadB.setLength(0);
+			while (ensure(1))
+				payloadB.append(read());
+
+			return atomic(payloadB.toString());
+		}
+
+		if (afterMember)
+		{
+			if (lookingAt(SPORE_MEMBER_SEPARATOR, 0))
+			{
+				skip(SPORE_MEMBER_SEPARATOR.length());
+				afterMember = false;
+			}
+
+			else if (lookingAt(SPORE_SUFFIX, 0))
+			{
+				skip(SPORE_SUFFIX.length());
+				openedSpores--;
+
+				// Anything after the outermost spore means we didn't understand it
+				if (openedSpores == 0 && ensure(1))
+					throw malformed();
+
+				return Event.END_SPORE;
+			}
+
+			else
+				throw malformed();
+		}
+
+		afterMember = true;
+
+		if (lookingAt(SPORE_PREFIX, 0))
+		{
+			if (firstMember && isMetadataAhead())
+			{
+				firstMember = false;
+				lexedMetadata = readMetadata();
+				return Event.METADATA;
+			}
+
+			return startSpore();
+		}
+
+		firstMember = false;
+		return readAtomic();
+	}
+
+
+	private Event startSpore() throws IOException
+	{
+		skip(SPORE_PREFIX.length());
+
+		// Something like {|} is both an opening and a closing brace
+		if (lookingAt(SPORE_SUFFIX_AFTER_PREFIX, 0))
+			throw malformed();
+
+		openedSpores++;
+		afterMember = false;
+		firstMember = true;
+
+		return Event.START_SPORE;
+	}
+
+
+	/**
+	 * Metadata looks like this (2017-02-09): {|spr_|_version_|_uniqueIdentifier|}
+	 */
+	private boolean isMetadataAhead() throws IOException
+	{
+		final String metadataStart = SPORE_PREFIX + SporeMetadataType.METADATA_PREFIX.prefix();
+
+		return lookingAt(metadataStart, 0) &&
+				(lookingAt(SPORE_MEMBER_SEPARATOR, metadataStart.length()) || lookingAt(SPORE_SUFFIX, metadataStart.length()));
+	}
+
+
+	private SporeMetadata readMetadata() throws IOException
+	{
+		// Metadata spores are tiny, so we can afford to collect them and use the usual parser
+		payloadB.setLength(0);
+
+		int openedMetadataSpores = 0;
+
+		do
+		{
+			if (lookingAt(SPORE_PREFIX, 0))
+			{
+				payloadB.append(SPORE_PREFIX);
+				skip(SPORE_PREFIX.length());
+				openedMetadataSpores++;
+			}
+
+			else if (lookingAt(SPORE_SUFFIX, 0))
+			{
+				payloadB.append(SPORE_SUFFIX);
+				skip(SPORE_SUFFIX.length());
+				openedMetadataSpores--;
+			}
+
+			else if (ensure(1))
+				payloadB.append(read());
+
+			else
+				throw malformed();
+		}
+		while (openedMetadataSpores > 0);
+
+		final SporeMetadata metadata = SporeMetadata.fromSpore(Spore.fromFrozenSpore(payloadB.toString()));
+
+		// ggrec, 2017-11-09: The members would be read as garbage
+		if (metadata != null && metadata.entries().stream().anyMatch(entry -> entry.type() == SporeMetadataType.DIALECT))
+			throw new IllegalArgumentException("Length prefixed spores can't be streamed, use Spore.fromFrozenSpore"); //$NON-NLS-1$
+
+		return metadata;
+	}
+
+
+	private Event readAtomic() throws IOException
+	{
+		payloadB.setLength(0);
+
+		while (true)
+		{
+			if (!ensure(1) || lookingAt(SPORE_PREFIX, 0))
+				throw malformed();
+
+			if (lookingAt(SPORE_MEMBER_SEPARATOR, 0) || lookingAt(SPORE_SUFFIX, 0))
+				return atomic(payloadB.toString());
+
+			payloadB.append(read());
+		}
+	}
+
+
+	private Event atomic(final String atomicPayload)
+	{
+		lexedPayload = atomicPayload;
+
+		if (NULL_PAYLOAD.equals(atomicPayload))
+			return Event.NULL;
+
+		if (EMPTY_COLLECTION_PAYLOAD.equals(atomicPayload))
+			return Event.EMPTY_COLLECTION;
+
+		return Event.ATOMIC;
+	}
+
+
+	private IllegalArgumentException malformed()
+	{
+		return new IllegalArgumentException(MessageFormat.format("Malformed spore at offset {0}", offset)); //$NON-NLS-1$
+	}
+
+
+	// ==================== 6.2. Buffer ====================
+
+	/**
+	 * @return true if at least the given number of chars is available
+	 */
+	private boolean ensure(final int count) throws IOException
+	{
+		if (buffer.remaining() < count && !endOfSource)
+		{
+			buffer.compact();
+
+			try
+			{
+				while (buffer.position() < count && !endOfSource)
+					if (source.read(buffer) < 0)
+						endOfSource = true;
+			}
+			finally
+			{
+				buffer.flip();
+			}
+		}
+
+		return buffer.remaining() >= count;
+	}
+
+
+	private boolean lookingAt(final String chars, final int fromIndex) throws IOException
+	{
+		if (!ensure(fromIndex + chars.length()))
+			return false;
+
+		final int start = buffer.position() + fromIndex;
+
+		for (int i = 0; i < chars.length(); i++)
+			if (buffer.get(start + i) != chars.charAt(i))
+				return false;
+
+		return true;
+	}
+
+
+	private char read()
+	{
+		offset++;
+		return buffer.get();
+	}
+
+
+	private void skip(final int count)
+	{
+		offset += count;
+		buffer.position(buffer.position() + count);
+	}
+
+
+	// =======================================================
+	// 			 19. Inline Classes
+	// =======================================================
+
+	public enum Event
+	{
+		START_SPORE,
+
+		/**
+		 * Always the first event after {@link #START_SPORE}, if the spore has metadata
+		 */
+		METADATA,
+
+		ATOMIC,
+
+		NULL,
+
+		EMPTY_COLLECTION,
+
+		END_SPORE
+	}
+
+
+	/**
+	 * The enclosed spores of one composite spore, read from the stream. Each enclosed spore is created only when asked
+	 * for, and only that one is kept in memory.
+	 */
+	final class Members implements Iterator<Spore>
+	{
+
+		final private int membersDepth;
+
+		private boolean hasOpenCollection;
+
+
+		private Members()
+		{
+			this.membersDepth = depth;
+		}
+
+
+		@Override
+		public boolean hasNext()
+		{
+			try
+			{
+				skipOpenCollection();
+
+				final Event nextEvent = peek();
+				return nextEvent != null && nextEvent != Event.END_SPORE;
+			}
+			catch (final IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+
+		@Override
+		public Spore next()
+		{
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			try
+			{
+				return readSpore(SporeReader.this.next());
+			}
+			catch (final IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+
+		/**
+		 * Doesn't read the next spore
+		 */
+		boolean nextIsNull()
+		{
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			try
+			{
+				return peek() == Event.NULL;
+			}
+			catch (final IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+
+		/**
+		 * ggrec, 2017-11-10: Reads past the next spore, without creating it nor its enclosed spores
+		 */
+		void skipNext()
+		{
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			try
+			{
+				if (SporeReader.this.next() == Event.START_SPORE)
+					while (depth > membersDepth)
+						SporeReader.this.next();
+			}
+			catch (final IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+
+		/**
+		 * Same as {@link SporeParser} does with a collection spore, but the elements are streamed, instead of creating the
+		 * collection spore first. The stream must be consumed before reading the next spore, else the rest of the
+		 * collection is skipped.
+		 */
+		Optional<Stream<Spore>> nextAsSporeStream()
+		{
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			try
+			{
+				switch (SporeReader.this.next())
+				{
+					case NULL:
+						return Optional.empty();
+
+					case START_SPORE:
+						if (peek() == Event.METADATA)
+							SporeReader.this.next();
+
+						hasOpenCollection = true;
+						return Optional.of(StreamSupport.stream(Spliterators.spliteratorUnknownSize(new Members(), Spliterator.ORDERED), false));
+
+					default:
+						// Empty collection, or an atomic spore which has no enclosed spores
+						return Optional.of(Stream.empty());
+				}
+			}
+			catch (final IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+
+		private void skipOpenCollection() throws IOException
+		{
+			if (hasOpenCollection)
+			{
+				while (depth > membersDepth)
+					SporeReader.this.next();
+
+				hasOpenCollection = false;
+			}
+		}
+
+
+		private Spore readSpore(final Event sporeEvent) throws IOException
+		{
+			if (sporeEvent != Event.START_SPORE)
+				return AtomicSpore.of(payload);
+
+			SporeMetadata enclosedMetadata = null;
+			final ImmutableList.Builder<Spore> enclosedSporesB = ImmutableList.builder();
+
+			for (Event enclosedEvent = SporeReader.this.next(); enclosedEvent != Event.END_SPORE; enclosedEvent = SporeReader.this.next())
+			{
+				if (enclosedEvent == Event.METADATA)
+					enclosedMetadata = metadata;
+				else
+					enclosedSporesB.add(readSpore(enclosedEvent));
+			}
+
+			return new CompositeSpore(enclosedMetadata, enclosedSporesB.build());
+		}
+
+	}
+
+}
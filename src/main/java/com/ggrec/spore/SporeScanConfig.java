@@ -0,0 +1,236 @@
+package com.ggrec.spore;
+
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import org.reflections.util.ClasspathHelper;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * ggrec, 2017-10-30: Where {@link SporableRegistry} looks for the {@link Spore.Sporable} classes. Set it globally with
+ *                    {@link SporableRegistry#configure(SporeScanConfig)}, or pass it to a single {@link Spore#toInstance}.
+ *
+ *                    Immutable, every "with" method returns a new configuration. Without any roots or package prefixes,
+ *                    the classpath roots of the "com.ansis" package are scanned, as before.
+ *
+ * @author ggrec
+ *
+ */
+public final class SporeScanConfig
+{
+
+	// ==================== 1. Static Fields ========================
+
+	private static final String LEGACY_PACKAGE = "com.ansis"; //$NON-NLS-1$
+
+	private static final SporeScanConfig DEFAULTS = new SporeScanConfig(ImmutableSet.of(), ImmutableSet.of(), ImmutableList.of(), false, false);
+
+
+	// ====================== 2. Instance Fields =============================
+
+	final private ImmutableSet<URL> roots;
+
+	final private ImmutableSet<String> packagePrefixes;
+
+	final private ImmutableList<ClassLoader> classLoaders;
+
+	final private boolean registeredOnly;
+
+	final private boolean classpathFallback;
+
+
+	// ==================== 3. Static Methods ====================
+
+	public static SporeScanConfig defaults()
+	{
+		return DEFAULTS;
+	}
+
+
+	// ==================== 4. Constructors ====================
+
+	private SporeScanConfig(final ImmutableSet<URL> roots, final ImmutableSet<String> packagePrefixes, final ImmutableList<ClassLoader> classLoaders, final boolean registeredOnly, final boolean classpathFallback)
+	{
+		this.roots = roots;
+		this.packagePrefixes = packagePrefixes;
+		this.classLoaders = classLoaders;
+		this.registeredOnly = registeredOnly;
+		this.classpathFallback = classpathFallback;
+	}
+
+
+	// ==================== 6. Action Methods ====================
+
+	/**
+	 * Jars or class folders which are scanned completely
+	 */
+	public SporeScanConfig withRoots(final Collection<URL> roots)
+	{
+		return new SporeScanConfig(ImmutableSet.<URL>builder().addAll(this.roots).addAll(roots).build(), packagePrefixes, classLoaders, registeredOnly, classpathFallback);
+	}
+
+
+	/**
+	 * Only the classes in these packages are scanned, and only in the roots which contain them
+	 */
+	public SporeScanConfig withPackagePrefixes(final String... packagePrefixes)
+	{
+		return new SporeScanConfig(roots, ImmutableSet.<String>builder().addAll(this.packagePrefixes).add(packagePrefixes).build(), classLoaders, registeredOnly, classpathFallback);
+	}
+
+
+	/**
+	 * Used to find the package roots, and to load the classes which were found
+	 */
+	public SporeScanConfig withClassLoaders(final ClassLoader... classLoaders)
+	{
+		return new SporeScanConfig(roots, packagePrefixes, ImmutableList.<ClassLoader>builder().addAll(this.classLoaders).add(classLoaders).build(), registeredOnly, classpathFallback);
+	}
+
+
+	/**
+	 * Nothing is scanned, only the classes given to {@link SporableRegistry#register(Class...)} are found
+	 */
+	public SporeScanConfig registeredOnly()
+	{
+		return new SporeScanConfig(roots, packagePrefixes, classLoaders, true, classpathFallback);
+	}
+
+
+	/**
+	 * ggrec, 2017-11-22: The lookups which the compile-time index can't answer scan the classpath, for the modules which
+	 *                    weren't compiled with the spore-processor. Off by default, so nothing is ever scanned when there's
+	 *                    an index. {@link SporableRegistry#warmUp()} then scans in the background as well.
+	 */
+	public SporeScanConfig withClasspathFallback()
+	{
+		return new SporeScanConfig(roots, packagePrefixes, classLoaders, registeredOnly, true);
+	}
+
+
+	// ==================== 7. Getters & Setters ====================
+
+	public boolean isRegisteredOnly()
+	{
+		return registeredOnly;
+	}
+
+
+	public boolean hasClasspathFallback()
+	{
+		return classpathFallback;
+	}
+
+
+	ImmutableList<ClassLoader> classLoaders()
+	{
+		return classLoaders;
+	}
+
+
+	Collection<URL> urlsToScan()
+	{
+		if (roots.isEmpty() && packagePrefixes.isEmpty())
+			return ClasspathHelper.forPackage(LEGACY_PACKAGE, classLoaderArray());
+
+		final ImmutableSet.Builder<URL> urlsB = ImmutableSet.<URL>builder().addAll(roots);
+		packagePrefixes.forEach(prefix -> urlsB.addAll(ClasspathHelper.forPackage(prefix, classLoaderArray())));
+		return urlsB.build();
+	}
+
+
+	/**
+	 * @return the filter for the scanned files, either paths (com/foo/Bar.class) or fully qualified names
+	 */
+	Predicate<String> inputFilter()
+	{
+		return input -> packagePrefixes.isEmpty() || isInPackages(input.replace('/', '.'));
+	}
+
+
+	/**
+	 * ggrec, 2017-11-22: The same filters as the scan, for the classes which come from the compile-time index
+	 */
+	boolean includes(final Class<?> clazz)
+	{
+		// The package roots are the roots of these packages, so only the packages matter
+		if (!packagePrefixes.isEmpty())
+			return isInPackages(clazz.getName());
+
+		if (!roots.isEmpty())
+			return isInRoots(clazz);
+
+		return true;
+	}
+
+
+	/**
+	 * A prefix only matches whole packages, so com.foo doesn't match com.foobar
+	 */
+	private boolean isInPackages(final String name)
+	{
+		return packagePrefixes.stream().anyMatch(prefix -> {
+
+			final String packageName = prefix.endsWith(".") ? prefix.substring(0, prefix.length() - 1) : prefix; //$NON-NLS-1$
+			return name.startsWith(packageName) && (name.length() == packageName.length() || name.charAt(packageName.length()) == '.');
+		});
+	}
+
+
+	private boolean isInRoots(final Class<?> clazz)
+	{
+		final CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+
+		if (codeSource == null || codeSource.getLocation() == null)
+			return false;
+
+		final String location = withoutTrailingSlash(codeSource.getLocation().toExternalForm());
+		return roots.stream().anyMatch(root -> withoutTrailingSlash(root.toExternalForm()).equals(location));
+	}
+
+
+	private static String withoutTrailingSlash(final String url)
+	{
+		return url.endsWith("/") ? url.substring(0, url.length() - 1) : url; //$NON-NLS-1$
+	}
+
+
+	private ClassLoader[] classLoaderArray()
+	{
+		return classLoaders.toArray(new ClassLoader[classLoaders.size()]);
+	}
+
+
+	@Override
+	public int hashCode()
+	{
+		return Objects.hash(roots, packagePrefixes, classLoaders, registeredOnly, classpathFallback);
+	}
+
+
+	@Override
+	public boolean equals(final Object obj)
+	{
+		if (this == obj)
+			return true;
+
+		if (!(obj instanceof SporeScanConfig))
+			return false;
+
+		final SporeScanConfig other = (SporeScanConfig) obj;
+		return registeredOnly == other.registeredOnly && classpathFallback == other.classpathFallback && roots.equals(other.roots) && packagePrefixes.equals(other.packagePrefixes) && classLoaders.equals(other.classLoaders);
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return "SporeScanConfig [roots=" + roots + ", packagePrefixes=" + packagePrefixes + ", classLoaders=" + classLoaders + ", registeredOnly=" + registeredOnly + ", classpathFallback=" + classpathFallback + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	}
+
+}
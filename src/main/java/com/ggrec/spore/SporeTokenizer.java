@@ -0,0 +1,277 @@
+package com.ggrec.spore;
+
+import static com.ggrec.spore.Spore.SPORE_MEMBER_SEPARATOR;
+import static com.ggrec.spore.Spore.SPORE_PREFIX;
+import static com.ggrec.spore.Spore.SPORE_SUFFIX;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.ggrec.spore.Spore.AtomicSpore;
+import com.ggrec.spore.Spore.CompositeSpore;
+import com.ggrec.spore.Spore.LazyCompositeSpore;
+import com.ggrec.spore.Spore.SporeMetadata;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * ggrec, 2017-10-02: Single pass, index based reader for frozen spores. Each character of the frozen spore is looked at
+ *                    once, and the whole tree of composite/atomic spores is built on the way. No substrings are created,
+ *                    except for the atomic payloads themselves.
+ *
+ *                    The reader is strict. If the frozen spore is not well formed (ex. a payload contains one of the
+ *                    delimiters), it gives up and returns NULL, so that {@link Spore#fromFrozenSpore(String)} can fall back
+ *                    to the brace counting algorithm, which has its own (weird) opinion about such spores.
+ *
+ * ggrec, 2017-10-05: Can also stop materializing after the first level, for {@link LazyCompositeSpore}. The deeper levels
+ *                    are still checked, but only their offsets are kept.
+ *
+ * ggrec, 2017-11-22: The first level isn't materialized either, see {@link #locate(String, int, int)}
+ *
+ * @author ggrec
+ *
+ */
+final class SporeTokenizer
+{
+
+	// ==================== 1. Static Fields ========================
+
+	/**
+	 * Returned instead of the members when a composite was only skipped
+	 */
+	private static final List<Object> SKIPPED = Collections.emptyList();
+
+
+	// ====================== 2. Instance Fields =============================
+
+	final private String frozenSpore;
+
+	private int pos;
+
+	/**
+	 * ggrec, 2017-11-21: Of the composite being read, and the deepest one so far. Reported to {@link SporeMetrics}.
+	 */
+	private int depth;
+
+	private int maxDepth;
+
+
+	// ==================== 3. Static Methods ====================
+
+	/**
+	 * @return NULL if the frozen spore is not a well formed composite spore
+	 */
+	static Spore tokenize(final String frozenSpore)
+	{
+		if (!frozenSpore.startsWith(SPORE_PREFIX))
+			return null;
+
+		final SporeTokenizer tokenizer = new SporeTokenizer(frozenSpore, 0);
+
+		final List<Object> members = tokenizer.readComposite(Integer.MAX_VALUE);
+
+		// Anything after the closing suffix means we didn't understand the spore
+		if (members == null || tokenizer.pos != frozenSpore.length())
+			return null;
+
+		final SporeMetrics.Listener metrics = SporeMetrics.listener;
+		if (metrics != null)
+			metrics.parsed(tokenizer.maxDepth);
+
+		return assemble(members);
+	}
+
+
+	/**
+	 * ggrec, 2017-11-22: For {@link LazyCompositeSpore}. The whole composite is checked, but nothing is created for its
+	 *                    members, not even the substrings. They're created from the offsets when they're needed.
+	 *
+	 * @return the start and the end of each direct member, one after the other. NULL if the frozen spore is not a well
+	 *         formed composite spore.
+	 */
+	static int[] locate(final String frozenSpore, final int start, final int end)
+	{
+		if (!frozenSpore.startsWith(SPORE_PREFIX, start))
+			return null;
+
+		final SporeTokenizer tokenizer = new SporeTokenizer(frozenSpore, start);
+
+		tokenizer.depth++;
+		tokenizer.maxDepth = tokenizer.depth;
+
+		final int[] offsets = tokenizer.readOffsets();
+
+		if (offsets == null || tokenizer.pos != end)
+			return null;
+
+		final SporeMetrics.Listener metrics = SporeMetrics.listener;
+		if (metrics != null)
+			metrics.parsed(tokenizer.maxDepth);
+
+		return offsets;
+	}
+
+
+	/**
+	 * The metadata is only looked at once we know that the whole spore is well formed. The old parser would
+	 * complain about the format of the spore before complaining about the metadata.
+	 */
+	private static Spore assemble(final List<Object> members)
+	{
+		final Spore firstMember = assembleMember(members.get(0));
+
+		// This will be NULL if the first member isn't a metadata object
+		final SporeMetadata metadata = SporeMetadata.fromSpore(firstMember);
+
+		final ImmutableList.Builder<Spore> enclosedSporesB = ImmutableList.builder();
+
+		if (metadata == null)
+			enclosedSporesB.add(firstMember);
+
+		for (int i = 1; i < members.size(); i++)
+			enclosedSporesB.add(assembleMember(members.get(i)));
+
+		return new CompositeSpore(metadata, enclosedSporesB.build());
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private static Spore assembleMember(final Object member)
+	{
+		return member instanceof Spore ? (Spore) member : assemble((List<Object>) member);
+	}
+
+
+	// ==================== 4. Constructors ====================
+
+	private SporeTokenizer(final String frozenSpore, final int start)
+	{
+		this.frozenSpore = frozenSpore;
+		this.pos = start;
+	}
+
+
+	// ==================== 6. Action Methods ====================
+
+	/**
+	 * Expects the position to be on the {@link Spore#SPORE_PREFIX}. Leaves the position right after the matching {@link Spore#SPORE_SUFFIX}.
+	 *
+	 * @param materializedDepth how many levels of spores are created from here on. With 0 or less, the composite is only skipped.
+	 *
+	 * @return the members of the composite, either spores or lists of members for the enclosed composites.
+	 *         {@link #SKIPPED} if nothing was materialized, NULL if malformed.
+	 */
+	private List<Object> readComposite(final int materializedDepth)
+	{
+		depth++;
+		if (depth > maxDepth)
+			maxDepth = depth;
+
+		final List<Object> members = readMembers(materializedDepth);
+		depth--;
+
+		return members;
+	}
+
+
+	private List<Object> readMembers(final int materializedDepth)
+	{
+		pos += SPORE_PREFIX.length();
+
+		// Something like {|} is both an opening and a closing brace for the old parser
+		if (frozenSpore.startsWith(SPORE_SUFFIX, pos - 1))
+			return null;
+
+		final List<Object> members = materializedDepth > 0 ? new ArrayList<>() : SKIPPED;
+
+		while (true)
+		{
+			final Object member = readMember(materializedDepth);
+			if (member == null)
+				return null;
+
+			if (materializedDepth > 0)
+				members.add(member);
+
+			if (frozenSpore.startsWith(SPORE_MEMBER_SEPARATOR, pos))
+				pos += SPORE_MEMBER_SEPARATOR.length();
+
+			else if (frozenSpore.startsWith(SPORE_SUFFIX, pos))
+			{
+				pos += SPORE_SUFFIX.length();
+				return members;
+			}
+
+			else
+				return null;
+		}
+	}
+
+
+	/**
+	 * Same as {@link #readMembers(int)}, keeping only the offsets of the members
+	 */
+	private int[] readOffsets()
+	{
+		pos += SPORE_PREFIX.length();
+
+		if (frozenSpore.startsWith(SPORE_SUFFIX, pos - 1))
+			return null;
+
+		int[] offsets = new int[8];
+		int size = 0;
+
+		while (true)
+		{
+			final int memberStart = pos;
+
+			if (readMember(0) == null)
+				return null;
+
+			if (size == offsets.length)
+				offsets = Arrays.copyOf(offsets, size * 2);
+
+			offsets[size++] = memberStart;
+			offsets[size++] = pos;
+
+			if (frozenSpore.startsWith(SPORE_MEMBER_SEPARATOR, pos))
+				pos += SPORE_MEMBER_SEPARATOR.length();
+
+			else if (frozenSpore.startsWith(SPORE_SUFFIX, pos))
+			{
+				pos += SPORE_SUFFIX.length();
+				return Arrays.copyOf(offsets, size);
+			}
+
+			else
+				return null;
+		}
+	}
+
+
+	/**
+	 * @return NULL if malformed
+	 */
+	private Object readMember(final int materializedDepth)
+	{
+		final int memberStart = pos;
+
+		if (frozenSpore.startsWith(SPORE_PREFIX, pos))
+			return readComposite(materializedDepth - 1);
+
+		for (; pos < frozenSpore.length(); pos++)
+		{
+			// An opening brace inside a payload. The old parser would count it, so we let it decide.
+			if (frozenSpore.startsWith(SPORE_PREFIX, pos))
+				return null;
+
+			if (frozenSpore.startsWith(SPORE_MEMBER_SEPARATOR, pos) || frozenSpore.startsWith(SPORE_SUFFIX, pos))
+				return materializedDepth > 0 ? AtomicSpore.of(frozenSpore, memberStart, pos) : SKIPPED;
+		}
+
+		// Reached the end without closing the composite
+		return null;
+	}
+
+}
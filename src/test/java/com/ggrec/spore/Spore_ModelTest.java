@@ -1,20 +1,50 @@
 package com.ggrec.spore;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.net.URL;
+import java.nio.CharBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.junit.Test;
 
 import com.ggrec.spore.Spore.ISporable;
+import com.ggrec.spore.Spore.Sporable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 
 /**
  * 
@@ -142,6 +172,45 @@ public class Spore_ModelTest
 		final SporeParser sp = new SporeParser(spore);
 	}
 
+	@Test
+	public void toString_FrozenOnce() throws Exception
+	{
+		final Spore spore = new SporeBuilder("1")
+				.append(new TestObj("Dan"))
+				.appendAsCollection(ImmutableList.of(1, 2), Spore::from)
+				.appendAsCollection(ImmutableList.of())
+				.build();
+
+		final String frozen = spore.toString();
+
+		assertThat(frozen).isEqualTo("{|{|spr_|_v1|}_|_{|{|spr_|_vDan|}_|_Dan|}_|_{|1_|_2|}_|_-e-|}");
+		assertThat(spore.toString()).isSameAs(frozen);
+		assertThat(new SporeBuilder().build().toString()).isEqualTo("{||}");
+		assertThat(new SporeBuilder("1").build().toString()).isEqualTo("{|{|spr_|_v1|}|}");
+	}
+
+
+	@Test
+	public void freezeTo() throws Exception
+	{
+		final SporeBuilder sb = new SporeBuilder("1")
+				.append(new TestObj("Dan"))
+				.append(Spore.fromFrozenSpore_Lazy("{|{|spr_|_v2|}_|_a_|_{|b|}|}"))
+				.appendAsCollection(ImmutableList.of(1, 2), Spore::from)
+				.appendNullPayload();
+
+		final StringWriter fromBuilder = new StringWriter();
+		sb.freezeTo(fromBuilder);
+
+		final StringBuilder fromSpore = new StringBuilder();
+		final Spore spore = sb.build();
+		spore.freezeTo(fromSpore);
+
+		assertThat(fromBuilder.toString()).isEqualTo(spore.toString());
+		assertThat(fromSpore.toString()).isEqualTo(spore.toString());
+	}
+
+
 	@Test
 	public void fromString() throws Exception
 	{
@@ -153,6 +222,856 @@ public class Spore_ModelTest
 	}
 
 
+	@Test
+	public void fromString_Nested() throws Exception
+	{
+		final String frozen = "{|{|spr_|_v1_|_uRoot|}_|_{|{|spr_|_v2|}_|_name_|_{|1_|_2_|_3|}|}_|_--_|_-e-_|_{||}_|_|}";
+
+		final Spore spore = Spore.fromFrozenSpore(frozen);
+
+		assertThat(spore.toString()).isEqualTo(frozen);
+		assertThat(spore.version()).isEqualTo("1");
+		assertThat(spore.uniqueIdentifier()).isEqualTo("Root");
+
+		final SporeParser sp = new SporeParser(spore);
+		final Spore nested = sp.nextAsSpore();
+		assertThat(nested.version()).isEqualTo("2");
+		assertThat(new SporeParser(nested).nextAsString()).isEqualTo("name");
+		assertThat(sp.nextAsSpore().isPayloadNull()).isTrue();
+		assertThat(sp.nextAsString()).isEqualTo(Spore.EMPTY_COLLECTION_PAYLOAD);
+		assertThat(sp.nextAsSpore().toString()).isEqualTo("{||}");
+		assertThat(sp.nextAsString()).isEmpty();
+		assertThat(sp.hasNext()).isFalse();
+	}
+
+
+	@Test
+	public void fromString_Lazy() throws Exception
+	{
+		final String frozen = "{|{|spr_|_v1_|_uRoot|}_|_{|{|spr_|_v2|}_|_name_|_{|1_|_2_|_3|}|}_|_--_|_-e-_|_{||}_|_|}";
+
+		final Spore spore = Spore.fromFrozenSpore_Lazy(frozen);
+
+		assertThat(spore.toString()).isEqualTo(frozen);
+		assertThat(spore.version()).isEqualTo("1");
+		assertThat(spore.uniqueIdentifier()).isEqualTo("Root");
+
+		final SporeParser sp = new SporeParser(spore);
+		final Spore nested = sp.nextAsSpore();
+		assertThat(nested.toString()).isEqualTo("{|{|spr_|_v2|}_|_name_|_{|1_|_2_|_3|}|}");
+		assertThat(nested.version()).isEqualTo("2");
+
+		final SporeParser nestedParser = new SporeParser(nested);
+		assertThat(nestedParser.nextAsString()).isEqualTo("name");
+		assertThat(nestedParser.nextAsList(s -> Integer.valueOf(s.toString()))).containsExactly(1, 2, 3);
+
+		assertThat(sp.nextAsSpore().isPayloadNull()).isTrue();
+		assertThat(sp.nextAsString()).isEqualTo(Spore.EMPTY_COLLECTION_PAYLOAD);
+		assertThat(sp.nextAsSpore().toString()).isEqualTo("{||}");
+		assertThat(sp.nextAsString()).isEmpty();
+		assertThat(sp.hasNext()).isFalse();
+
+		// Malformed spores are handled exactly like the eager API does
+		assertThat(new SporeParser(Spore.fromFrozenSpore_Lazy("{|a{|b_|_c|}")).nextAsString()).isEqualTo("a{|b_|_c");
+	}
+
+
+	@Test
+	public void sporeReader() throws Exception
+	{
+		final String frozen = "{|{|spr_|_v1_|_uRoot|}_|_name_|_--_|_{|1_|_2|}_|_-e-|}";
+
+		final SporeReader reader = new SporeReader(new StringReader(frozen));
+
+		assertThat(reader.next()).isEqualTo(SporeReader.Event.START_SPORE);
+		assertThat(reader.next()).isEqualTo(SporeReader.Event.METADATA);
+		assertThat(reader.version()).isEqualTo("1");
+		assertThat(reader.uniqueIdentifier()).isEqualTo("Root");
+		assertThat(reader.next()).isEqualTo(SporeReader.Event.ATOMIC);
+		assertThat(reader.payload()).isEqualTo("name");
+		assertThat(reader.next()).isEqualTo(SporeReader.Event.NULL);
+		assertThat(reader.next()).isEqualTo(SporeReader.Event.START_SPORE);
+		assertThat(reader.next()).isEqualTo(SporeReader.Event.ATOMIC);
+		assertThat(reader.next()).isEqualTo(SporeReader.Event.ATOMIC);
+		assertThat(reader.payload()).isEqualTo("2");
+		assertThat(reader.next()).isEqualTo(SporeReader.Event.END_SPORE);
+		assertThat(reader.next()).isEqualTo(SporeReader.Event.EMPTY_COLLECTION);
+		assertThat(reader.next()).isEqualTo(SporeReader.Event.END_SPORE);
+		assertThat(reader.hasNext()).isFalse();
+	}
+
+
+	@Test
+	public void sporeReader_Parser() throws Exception
+	{
+		final SporeBuilder sb = new SporeBuilder("1")
+				.append("name")
+				.appendAsCollection(ImmutableList.of(new TestObj("Dan"), new TestObj("Ann")))
+				.appendAsCollection(null)
+				.append(42)
+				.appendAsCollection(ImmutableList.of());
+
+		final SporeParser sp = new SporeParser(new SporeReader(CharBuffer.wrap(sb.build().toString())));
+		final Function<Spore, Object> unfreezer = sporee -> new TestObj().populateFromSpore(sporee);
+
+		assertThat(sp.nextAsString()).isEqualTo("name");
+		assertThat(sp.nextAsList(unfreezer)).containsExactly(new TestObj("Dan"), new TestObj("Ann"));
+		assertThat(sp.nextAsList(unfreezer)).isNull();
+		assertThat(sp.nextAsInteger()).isEqualTo(42);
+		assertThat(sp.nextAsList(unfreezer)).isEmpty();
+		assertThat(sp.hasNext()).isFalse();
+	}
+
+
+	@Test(expected = IllegalArgumentException.class)
+	public void sporeReader_Malformed() throws Exception
+	{
+		final SporeParser sp = new SporeParser(new SporeReader(new StringReader("{|a{|b_|_c|}")));
+		sp.nextAsString();
+	}
+
+
+	@Test
+	public void binaryCodec() throws Exception
+	{
+		final Spore spore = new SporeBuilder("1")
+				.uniqueIdentifier("Root")
+				.append("name")
+				.append(-42)
+				.append(Long.MAX_VALUE)
+				.append("007")
+				.append("-0")
+				.append("Grüße")
+				.appendNullPayload()
+				.appendAsCollection(ImmutableList.of(new TestObj("Dan"), new TestObj("")))
+				.appendAsCollection(ImmutableList.of())
+				.append(new SporeBuilder())
+				.build();
+
+		final byte[] bytes = SporeBinaryCodec.toBytes(spore);
+
+		assertThat(SporeBinaryCodec.toFrozenSpore(bytes)).isEqualTo(spore.toString());
+		assertThat(bytes.length).isLessThan(spore.toString().length());
+
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 1);
+		buffer.put((byte) 0);
+		SporeBinaryCodec.toBytes(spore, buffer);
+		buffer.flip().position(1);
+
+		assertThat(SporeBinaryCodec.fromBytes(buffer).toString()).isEqualTo(spore.toString());
+		assertThat(buffer.hasRemaining()).isFalse();
+
+		final String frozen = "{|v001_|_u_|_FilterModelUniqueId_|_name_|_description_|_3245|}";
+		assertThat(SporeBinaryCodec.toFrozenSpore(SporeBinaryCodec.fromFrozenSpore(frozen))).isEqualTo(frozen);
+
+		// Tag, member count, then tag and value for each member
+		assertThat(SporeBinaryCodec.fromFrozenSpore("{|1_|_2|}")).containsExactly(SporeBinaryCodec.TAG_COMPOSITE, 2, SporeBinaryCodec.TAG_INTEGER, 2, SporeBinaryCodec.TAG_INTEGER, 4);
+	}
+
+
+	@Test
+	public void sporableRegistry_NotFound() throws Exception
+	{
+		SporableRegistry.warmUp().get();
+
+		assertThat(SporableRegistry.find("NoSuchSporable", null, null)).isEmpty();
+		assertThat(SporableRegistry.find("NoSuchSporable", null, null)).isEmpty();
+		assertThat(SporableRegistry.find(null, null, null)).isEmpty();
+
+		final Spore spore = new SporeBuilder().uniqueIdentifier("NoSuchSporable").build();
+		assertThatThrownBy(() -> spore.toInstance()).isInstanceOf(IllegalArgumentException.class);
+	}
+
+
+	@Test
+	public void sporableIndex() throws Exception
+	{
+		assertThat(SporableIndex.load()).hasValueSatisfying(classes -> assertThat(classes).contains(IndexedTestObj.class));
+
+		final Spore spore = Spore.fromFrozenSpore(new IndexedTestObj("indexed").assembleSpore().build().toString());
+		final IndexedTestObj unfrozen = spore.toInstance();
+
+		assertThat(unfrozen.name).isEqualTo("indexed");
+	}
+
+
+	@Test
+	public void sporableIndex_Incomplete() throws Exception
+	{
+		// AutoTestObj is missing from the index, and the second class doesn't exist anymore
+		final SporeScanConfig scanConfig = SporeScanConfig.defaults()
+				.withPackagePrefixes("com.ggrec.spore")
+				.withClassLoaders(indexLoader("IndexedTestObj\tv1\t" + IndexedTestObj.class.getName(), "Gone\t1\tcom.ggrec.spore.Gone", "malformed"));
+
+		assertThat(SporableIndex.load(scanConfig.classLoaders())).hasValueSatisfying(classes -> assertThat(classes).containsExactly(IndexedTestObj.class));
+
+		assertThat(SporableRegistry.find("IndexedTestObj", null, null, scanConfig)).contains(IndexedTestObj.class);
+		assertThat(SporableRegistry.find("AutoTestObj", null, null, scanConfig)).isEmpty();
+
+		// Only scanned for with the fallback, and then in the background by warmUp()
+		final SporeMetricsRecorder recorder = new SporeMetricsRecorder();
+		SporeMetrics.install(recorder);
+
+		try
+		{
+			SporableRegistry.configure(scanConfig.withClasspathFallback());
+			SporableRegistry.warmUp().join();
+			assertThat(recorder.scans()).isEqualTo(2);
+
+			assertThat(SporableRegistry.find("AutoTestObj", null, null)).contains(AutoTestObj.class);
+			assertThat(SporableRegistry.find("Gone", null, null)).isEmpty();
+			assertThat(recorder.scans()).isEqualTo(2);
+
+			SporableRegistry.configure(scanConfig);
+			SporableRegistry.warmUp().join();
+			assertThat(SporableRegistry.find("NoSuchId", null, null)).isEmpty();
+			assertThat(recorder.scans()).isEqualTo(2);
+		}
+		finally
+		{
+			SporeMetrics.uninstall();
+			SporableRegistry.configure(SporeScanConfig.defaults());
+		}
+	}
+
+
+	@Test
+	public void sporableIndex_ScanConfig() throws Exception
+	{
+		final ClassLoader loader = indexLoader("IndexedTestObj\tv1\t" + IndexedTestObj.class.getName());
+		final URL testRoot = IndexedTestObj.class.getProtectionDomain().getCodeSource().getLocation();
+		final URL mainRoot = Spore.class.getProtectionDomain().getCodeSource().getLocation();
+
+		assertThat(SporableRegistry.find("IndexedTestObj", null, null, SporeScanConfig.defaults().withClassLoaders(loader).withPackagePrefixes("com.ggrec"))).contains(IndexedTestObj.class);
+		assertThat(SporableRegistry.find("IndexedTestObj", null, null, SporeScanConfig.defaults().withClassLoaders(loader).withPackagePrefixes("com.ggrec.spor"))).isEmpty();
+		assertThat(SporableRegistry.find("IndexedTestObj", null, null, SporeScanConfig.defaults().withClassLoaders(loader).withPackagePrefixes("com.other"))).isEmpty();
+
+		assertThat(SporableRegistry.find("IndexedTestObj", null, null, SporeScanConfig.defaults().withClassLoaders(loader).withRoots(ImmutableList.of(testRoot)))).contains(IndexedTestObj.class);
+		assertThat(SporeScanConfig.defaults().withRoots(ImmutableList.of(mainRoot)).includes(IndexedTestObj.class)).isFalse();
+	}
+
+
+	/**
+	 * Only sees the given index, everything else comes from the usual class loader
+	 */
+	private static ClassLoader indexLoader(final String... lines) throws IOException
+	{
+		final Path index = Files.createTempFile("sporables", ".index");
+		index.toFile().deleteOnExit();
+		Files.write(index, Arrays.asList(lines));
+
+		return new ClassLoader(Spore_ModelTest.class.getClassLoader())
+		{
+			@Override
+			public Enumeration<URL> getResources(final String name) throws IOException
+			{
+				return SporableIndex.INDEX_RESOURCE.equals(name) ? Collections.enumeration(Collections.singletonList(index.toUri().toURL())) : super.getResources(name);
+			}
+		};
+	}
+
+
+	@Test
+	public void sporableInstantiator() throws Exception
+	{
+		final SporeBuilder sb = new SporeBuilder();
+		sb.append(new VersionedTestObj("v7", "first"));
+		sb.append(new IndexedTestObj("second"));
+
+		final SporeParser sp = new SporeParser(Spore.fromFrozenSpore(sb.build().toString()));
+		final VersionedTestObj versioned = sp.parseNextSporeAsSporable(VersionedTestObj.class);
+		final IndexedTestObj indexed = sp.parseNextSporeAsSporable(IndexedTestObj.class);
+
+		assertThat(versioned.version).isEqualTo("v7");
+		assertThat(versioned.name).isEqualTo("first");
+		assertThat(indexed.name).isEqualTo("second");
+		assertThat(SporableInstantiator.of(IndexedTestObj.class)).isSameAs(SporableInstantiator.of(IndexedTestObj.class));
+
+		assertThatThrownBy(() -> SporableInstantiator.of(ISporable.class)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+
+	@Test
+	public void sporableRegistry_RegisteredOnly() throws Exception
+	{
+		final SporeScanConfig registeredOnly = SporeScanConfig.defaults().registeredOnly();
+		final Spore spore = new RegisteredTestObj().assembleSpore().build();
+
+		assertThatThrownBy(() -> spore.toInstance(null, null, registeredOnly)).isInstanceOf(IllegalArgumentException.class);
+
+		SporableRegistry.register(RegisteredTestObj.class);
+
+		assertThat(spore.<RegisteredTestObj> toInstance(null, null, registeredOnly)).isInstanceOf(RegisteredTestObj.class);
+		assertThat(SporableRegistry.find("RegisteredTestObj", null, null, SporeScanConfig.defaults().withPackagePrefixes("com.ggrec.spore"))).contains(RegisteredTestObj.class);
+		assertThatThrownBy(() -> SporableRegistry.register(TestObj.class)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+
+	@Test
+	public void primitives() throws Exception
+	{
+		final SporeBuilder sb = new SporeBuilder();
+		sb.append(Integer.MIN_VALUE);
+		sb.append(Long.MAX_VALUE);
+		sb.append(3.25);
+		sb.append(true);
+		sb.append((Integer) null);
+
+		final String frozen = sb.build().toString();
+
+		for (final SporeParser sp : Arrays.asList(new SporeParser(Spore.fromFrozenSpore(frozen)), new SporeParser(new SporeReader(new StringReader(frozen)))))
+		{
+			assertThat(sp.nextIsNull()).isFalse();
+			assertThat(sp.nextInt()).isEqualTo(Integer.MIN_VALUE);
+			assertThat(sp.nextLong()).isEqualTo(Long.MAX_VALUE);
+			assertThat(sp.nextDouble()).isEqualTo(3.25);
+			assertThat(sp.nextBoolean()).isTrue();
+			assertThat(sp.nextIsNull()).isTrue();
+			assertThat(sp.nextIsNull()).isTrue();
+			assertThatThrownBy(() -> sp.nextInt()).isInstanceOf(IllegalArgumentException.class);
+			assertThat(sp.hasNext()).isFalse();
+		}
+		// The built numbers are read as they are, without formatting them. Same results as parsing them.
+		final Spore built = new SporeBuilder().append(Long.MAX_VALUE).append(-7).append(0.1).append(Long.MAX_VALUE).append(-7).build();
+		assertThat(built.memberAt(0)).isInstanceOf(Spore.LongSpore.class);
+		assertThat(built.memberAt(2)).isInstanceOf(Spore.DoubleSpore.class);
+
+		for (final SporeParser sp : Arrays.asList(new SporeParser(built), new SporeParser(Spore.fromFrozenSpore(built.toString()))))
+		{
+			assertThatThrownBy(() -> sp.nextInt()).isInstanceOf(NumberFormatException.class).hasMessage("For input string: \"" + Long.MAX_VALUE + "\"");
+			assertThat(sp.nextDouble()).isEqualTo(-7.0);
+			assertThat(sp.nextDouble()).isEqualTo(0.1);
+			assertThat(sp.nextLong()).isEqualTo(Long.MAX_VALUE);
+			assertThat(sp.nextInt()).isEqualTo(-7);
+		}
+	}
+
+
+	@Test
+	public void append_Primitives() throws Exception
+	{
+		final SporeBuilder primitives = new SporeBuilder()
+				.append(-42).append(Long.MIN_VALUE).append(0.1).append(Double.NaN).append(1.1f).append(false).append('x').append(UserStatus.ACTIVE);
+
+		final SporeBuilder boxed = new SporeBuilder()
+				.append(Optional.of(-42)).append(Optional.of(Long.MIN_VALUE)).append(Optional.of(0.1)).append(Optional.of(Double.NaN))
+				.append(Optional.of(1.1f)).append(Optional.of(false)).append(Optional.of('x')).append(Optional.of(1));
+
+		final String frozen = primitives.build().toString();
+		assertThat(frozen).isEqualTo(boxed.build().toString());
+
+		final StringWriter writer = new StringWriter();
+		primitives.freezeTo(writer);
+		assertThat(writer.toString()).isEqualTo(frozen);
+
+		assertThat(SporeBinaryCodec.fromBytes(SporeBinaryCodec.toBytes(primitives.build())).toString()).isEqualTo(frozen);
+	}
+
+
+	@Test
+	public void codecs() throws Exception
+	{
+		final UUID uuid = UUID.randomUUID();
+		final LocalDate date = LocalDate.of(2017, 11, 3);
+		final Instant instant = Instant.ofEpochSecond(1509700000L, 123_000_000);
+
+		final SporeBuilder sb = new SporeBuilder()
+				.append(uuid).append(date).append(instant).append(Locale.CANADA_FRENCH).append(UserStatus.INACTIVE).append((UUID) null);
+
+		final SporeParser sp = new SporeParser(Spore.fromFrozenSpore(sb.build().toString()));
+		assertThat(sp.nextAs(UUID.class)).isEqualTo(uuid);
+		assertThat(sp.nextAsDate()).isEqualTo(date);
+		assertThat(sp.nextAs(Instant.class)).isEqualTo(instant);
+		assertThat(sp.nextAsLocale()).isEqualTo(Locale.CANADA_FRENCH);
+		assertThat(sp.nextAsEnum(UserStatus.class)).isEqualTo(UserStatus.INACTIVE);
+		assertThat(sp.nextAsUUID()).isNull();
+
+		assertThatThrownBy(() -> new SporeParser(sb.build()).nextAs(StringBuilder.class)).isInstanceOf(IllegalArgumentException.class);
+
+		final SporeCodec<UserStatus> byName = SporeCodecs.enumByName(UserStatus.class);
+		assertThat(byName.freeze(UserStatus.DELETED).toString()).isEqualTo("DELETED");
+		assertThat(byName.unfreeze(byName.freeze(UserStatus.PENDING))).isEqualTo(UserStatus.PENDING);
+	}
+
+
+	@Test
+	public void autoSporable() throws Exception
+	{
+		final AutoTestObj obj = new AutoTestObj();
+		obj.count = 7;
+		obj.total = -5_000_000_000L;
+		obj.ratio = 0.5;
+		obj.enabled = true;
+		obj.optionalCount = null;
+		obj.name = "auto";
+		obj.id = UUID.randomUUID();
+		obj.child = new IndexedTestObj("child");
+		obj.points = new long[] { 1, Long.MIN_VALUE };
+		obj.cache = "not frozen";
+
+		final Spore spore = Spore.fromFrozenSpore(obj.assembleSpore().build().toString());
+		assertThat(spore.version()).isEqualTo("v2");
+
+		final AutoTestObj unfrozen = spore.toInstance();
+		assertThat(unfrozen.count).isEqualTo(7);
+		assertThat(unfrozen.total).isEqualTo(-5_000_000_000L);
+		assertThat(unfrozen.ratio).isEqualTo(0.5);
+		assertThat(unfrozen.enabled).isTrue();
+		assertThat(unfrozen.optionalCount).isNull();
+		assertThat(unfrozen.name).isEqualTo("auto");
+		assertThat(unfrozen.id).isEqualTo(obj.id);
+		assertThat(unfrozen.child.name).isEqualTo("child");
+		assertThat(unfrozen.points).containsExactly(1, Long.MIN_VALUE);
+		assertThat(unfrozen.cache).isNull();
+
+		// Frozen by an older version, which had only the first two fields
+		final AutoTestObj older = (AutoTestObj) new AutoTestObj().populateFromSpore(new SporeBuilder("v1").append(3).append(4L).build());
+		assertThat(older.count).isEqualTo(3);
+		assertThat(older.total).isEqualTo(4L);
+		assertThat(older.name).isNull();
+	}
+
+
+	@Test
+	public void autoSporable_Inheritance() throws Exception
+	{
+		final AutoTestSubObj obj = new AutoTestSubObj();
+		obj.owner = "base";
+		obj.child = new IndexedTestSubObj("sub", 3);
+
+		final AutoTestSubObj unfrozen = Spore.fromFrozenSpore(obj.assembleSpore().build().toString()).toInstance();
+
+		assertThat(unfrozen.owner).isEqualTo("base");
+		assertThat(unfrozen.child).isInstanceOf(IndexedTestSubObj.class);
+		assertThat(unfrozen.child.name).isEqualTo("sub");
+		assertThat(((IndexedTestSubObj) unfrozen.child).level).isEqualTo(3);
+	}
+
+
+	@Test
+	public void sentinels() throws Exception
+	{
+		final SporeBuilder sb = new SporeBuilder()
+				.appendNullPayload().appendAsEmptyCollection().append((String) null).appendAsCollection(ImmutableList.of(), Spore::from).append("-e-");
+
+		final Spore built = sb.build();
+		final String frozen = built.toString();
+
+		for (final Spore spore : Arrays.asList(built, Spore.fromFrozenSpore(frozen), Spore.fromFrozenSpore_Lazy(frozen), SporeBinaryCodec.fromBytes(SporeBinaryCodec.toBytes(built))))
+		{
+			final List<Spore> members = ImmutableList.copyOf(spore);
+			assertThat(members.get(0)).isSameAs(members.get(2));
+			assertThat(members.get(1)).isSameAs(members.get(3)).isSameAs(members.get(4));
+			assertThat(members.get(0).isPayloadNull()).isTrue();
+			assertThat(members.get(1).isPayloadEmptyCollection()).isTrue();
+		}
+
+		assertThat(Spore.isSporeWithNullOrEmptyPayload(new SporeBuilder().appendAsEmptyCollection().build())).isTrue();
+		assertThat(Spore.isSporeWithNullOrEmptyPayload(new SporeBuilder().append(new SporeBuilder().appendAsEmptyCollection()).build())).isFalse();
+	}
+
+
+	@Test
+	public void payloadPool() throws Exception
+	{
+		final SporePayloadPool pool = SporePayloadPool.create(1000);
+		assertThat(pool.maxEntries()).isEqualTo(1024);
+
+		SporePayloadPool.install(pool);
+		try
+		{
+			final String frozen = new SporeBuilder("v1").append("EUR").append("EUR").append("ACTIVE").append(new SporeBuilder("v1").append("EUR")).build().toString();
+			final List<Spore> members = ImmutableList.copyOf(Spore.fromFrozenSpore(frozen));
+
+			assertThat(members.get(0)).isSameAs(members.get(1)).isSameAs(members.get(3).iterator().next());
+			assertThat(members.get(0).toString()).isSameAs(members.get(1).toString());
+			assertThat(pool.hits()).isGreaterThan(0);
+			assertThat(pool.hitRate()).isGreaterThan(0).isLessThanOrEqualTo(1);
+
+			final Spore builtSpore = new SporeBuilder().append("EUR").build();
+			assertThat(builtSpore.iterator().next()).isSameAs(members.get(0));
+
+			pool.clear();
+			assertThat(pool.hits()).isZero();
+		}
+		finally
+		{
+			SporePayloadPool.install(null);
+		}
+
+		final List<Spore> unpooled = ImmutableList.copyOf(Spore.fromFrozenSpore("{|EUR_|_EUR|}"));
+		assertThat(unpooled.get(0)).isNotSameAs(unpooled.get(1));
+	}
+
+
+	@Test
+	public void lengthPrefixed() throws Exception
+	{
+		final Spore spore = new SporeBuilder("1").uniqueIdentifier("User").append(new SporeBuilder().appendNullPayload().append("hello")).build();
+		final String frozen = SporeLengthPrefixedCodec.toFrozenSpore(spore);
+
+		assertThat(frozen).isEqualTo("{|{|spr_|_d3|}c19:a3:spra2:v1a5:uUserc13:a2:--a5:hello|}");
+		assertThat(Spore.fromFrozenSpore(frozen).toString()).isEqualTo(frozen);
+		assertThat(Spore.fromFrozenSpore(frozen).uniqueIdentifier()).isEqualTo("User");
+		assertThat(Spore.fromFrozenSpore_Lazy(frozen).toString()).isEqualTo(frozen);
+		assertThat(new SporeBuilder().append(Spore.fromFrozenSpore(frozen)).build().toString()).isEqualTo(new SporeBuilder().append(spore).build().toString());
+
+		// The delimiters are fine inside the payloads
+		final Spore delimiters = new SporeBuilder().append("a{|b_|_c|}").append(new SporeBuilder().append("|}")).build();
+		final SporeParser sp = new SporeParser(Spore.fromFrozenSpore(SporeLengthPrefixedCodec.toFrozenSpore(delimiters)));
+		assertThat(sp.nextAsString()).isEqualTo("a{|b_|_c|}");
+		assertThat(new SporeParser(sp.nextAsSpore()).nextAsString()).isEqualTo("|}");
+		assertThat(sp.hasNext()).isFalse();
+
+		// Frozen again in this dialect, the usual one would break the payloads
+		final Spore unfrozen = Spore.fromFrozenSpore(SporeLengthPrefixedCodec.toFrozenSpore(new SporeBuilder().append("a{|b").append("c_|_").build()));
+		final SporeParser refrozen = new SporeParser(Spore.fromFrozenSpore(unfrozen.toString()));
+		assertThat(refrozen.nextAsString()).isEqualTo("a{|b");
+		assertThat(refrozen.nextAsString()).isEqualTo("c_|_");
+		assertThat(refrozen.hasNext()).isFalse();
+		assertThat(SporeLengthPrefixedCodec.toFrozenSpore(new SporeBuilder().append(unfrozen).build())).contains("a4:a{|ba4:c_|_");
+		assertThatThrownBy(() -> new SporeBuilder().append(unfrozen).build().toString()).isInstanceOf(IllegalArgumentException.class);
+
+		// The metadata is checked too, and the nested spores before anything is written
+		final Spore badMetadata = Spore.fromFrozenSpore("{|{|spr_|_d3|}c19:a3:spra2:v1a5:u_|_Xa2:ok|}");
+		assertThat(badMetadata.uniqueIdentifier()).isEqualTo("_|_X");
+		assertThatThrownBy(() -> new SporeBuilder().append(badMetadata).build().toString()).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("_|_X");
+
+		final Spore nested = Spore.fromFrozenSpore(SporeLengthPrefixedCodec.toFrozenSpore(new SporeBuilder().append("first").append(new SporeBuilder().append("a{|b")).build()));
+		final StringWriter partial = new StringWriter();
+		assertThatThrownBy(() -> new SporeBuilder().append(nested).freezeTo(partial)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new SporeBuilder().append(new SporeBuilder().append("x").append(nested)).build().freezeTo(partial)).isInstanceOf(IllegalArgumentException.class);
+		assertThat(partial.toString()).isEmpty();
+
+		// The enclosed composites are only looked at when they're read
+		final Spore skipped = Spore.fromFrozenSpore("{|{|spr_|_d3|}a2:okc4:x2:y|}");
+		assertThat(ImmutableList.copyOf(skipped).get(0).toString()).isEqualTo("ok");
+
+		assertThatThrownBy(() -> Spore.fromFrozenSpore("{|{|spr_|_d3|}a9:short|}")).isInstanceOf(IllegalArgumentException.class);
+		assertThat(SporeLengthPrefixedCodec.isLengthPrefixed(spore.toString())).isFalse();
+	}
+
+
+	@Test
+	public void skipAndReset() throws Exception
+	{
+		final Spore spore = new SporeBuilder().append(1).append(new SporeBuilder().append("x")).appendNullPayload().append("four").build();
+		assertThat(spore.memberCount()).isEqualTo(4);
+		assertThat(spore.memberAt(3).toString()).isEqualTo("four");
+		assertThatThrownBy(() -> spore.memberAt(4)).isInstanceOf(IndexOutOfBoundsException.class);
+		assertThat(Spore.fromFrozenSpore_Lazy(spore.toString()).memberAt(1).memberAt(0).toString()).isEqualTo("x");
+
+		final SporeParser sp = new SporeParser(Spore.fromFrozenSpore_Lazy(spore.toString()));
+		sp.skip(2);
+		assertThat(sp.position()).isEqualTo(2);
+		assertThat(sp.peekIsNull()).isTrue();
+
+		sp.mark().skip(1);
+		assertThat(sp.nextAsString()).isEqualTo("four");
+		assertThat(sp.hasNext()).isFalse();
+		assertThatThrownBy(() -> sp.skip(1)).isInstanceOf(NoSuchElementException.class);
+
+		sp.reset();
+		assertThat(sp.position()).isEqualTo(2);
+		assertThat(sp.nextAsString()).isNull();
+
+		// The lazy spores only create the members they return
+		final SporePayloadPool pool = SporePayloadPool.create(100);
+		SporePayloadPool.install(pool);
+		try
+		{
+			final Spore lazy = Spore.fromFrozenSpore_Lazy("{|{|spr_|_v1|}_|_a_|_{|b_|_c|}_|_d_|_e|}");
+			assertThat(lazy.version()).isEqualTo("1");
+			pool.clear();
+
+			final SporeParser skipping = new SporeParser(lazy);
+			assertThat(skipping.skip(3).nextAsString()).isEqualTo("e");
+			assertThat(pool.hits() + pool.misses()).isEqualTo(1);
+
+			assertThat(lazy.memberCount()).isEqualTo(4);
+			assertThat(lazy.memberAt(1)).isSameAs(lazy.memberAt(1));
+			assertThat(lazy.memberAt(1).toString()).isEqualTo("{|b_|_c|}");
+			assertThat(pool.hits() + pool.misses()).isEqualTo(1);
+			assertThatThrownBy(() -> lazy.memberAt(4)).isInstanceOf(IndexOutOfBoundsException.class);
+			assertThat(ImmutableList.copyOf(lazy).stream().map(Spore::toString)).containsExactly("a", "{|b_|_c|}", "d", "e");
+		}
+		finally
+		{
+			SporePayloadPool.install(null);
+		}
+
+		// Streamed spores are skipped without creating them, but there's no way back
+		final SporeParser streamed = new SporeParser(new SporeReader(new StringReader(spore.toString())));
+		assertThat(streamed.skip(3).position()).isEqualTo(3);
+		assertThat(streamed.nextAsString()).isEqualTo("four");
+		assertThatThrownBy(() -> streamed.reset()).isInstanceOf(UnsupportedOperationException.class);
+
+		// The spores which can't be read by index are walked only once
+		final CountingSpore counting = new CountingSpore(new SporeBuilder().appendAsCollection(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), Spore::from).build().memberAt(0));
+		final SporeParser walked = new SporeParser(counting);
+		walked.skip(10).mark();
+		assertThat(walked.nextAsInteger()).isEqualTo(10);
+		walked.reset();
+		int sum = 0;
+		while (walked.hasNext())
+			sum += walked.nextAsInteger();
+		assertThat(sum).isEqualTo(499500 - 45);
+		assertThatThrownBy(() -> walked.skip(1)).isInstanceOf(NoSuchElementException.class);
+		assertThat(counting.iterations.get()).isEqualTo(1);
+	}
+
+
+	@Test
+	public void parallelUnfreeze() throws Exception
+	{
+		final List<Integer> numbers = IntStream.range(0, 5000).boxed().collect(Collectors.toList());
+		final Spore spore = new SporeBuilder().appendAsCollection(numbers, Spore::from).appendNullPayload().appendAsEmptyCollection().build();
+
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try
+		{
+			final SporeParallelism parallelism = SporeParallelism.on(pool).withThreshold(100);
+			final Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+
+			final SporeParser sp = new SporeParser(Spore.fromFrozenSpore_Lazy(spore.toString()));
+			final List<Integer> unfrozen = sp.nextAsList_Parallel(member -> {
+				if (Thread.currentThread() instanceof ForkJoinWorkerThread)
+					pools.add(((ForkJoinWorkerThread) Thread.currentThread()).getPool());
+				return Integer.valueOf(member.toString());
+			}, parallelism);
+
+			assertThat(unfrozen).isEqualTo(numbers);
+			assertThat(pools).containsOnly(pool);
+			assertThat(sp.nextAsList_Parallel(Spore::toString, parallelism)).isNull();
+			assertThat(sp.nextAsList_Parallel(Spore::toString, parallelism)).isEmpty();
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		assertThat(spore.memberAt(0).spliterator().hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED)).isTrue();
+		assertThat(new SporeParser(spore).nextAsStream_Parallel(member -> Integer.valueOf(member.toString())).collect(Collectors.toList())).isEqualTo(numbers);
+	}
+
+
+	@Test
+	public void parallelFreeze() throws Exception
+	{
+		final List<Integer> numbers = IntStream.range(0, 5000).boxed().collect(Collectors.toList());
+		final Map<Integer, String> map = numbers.stream().collect(Collectors.toMap(Function.identity(), String::valueOf, (a, b) -> a, LinkedHashMap::new));
+		final Function<Integer, Spore> freezer = number -> number % 7 == 0 ? null : Spore.from(number);
+
+		final String sequential = new SporeBuilder().appendAsCollection(numbers, freezer).appendAsMap(map, Spore::from, Spore::from).appendAsCollection(ImmutableList.of(), freezer).build().toString();
+
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try
+		{
+			final SporeParallelism parallelism = SporeParallelism.on(pool).withThreshold(100);
+
+			assertThat(new SporeBuilder()
+					.appendAsCollection_Parallel(numbers, freezer, parallelism)
+					.appendAsMap_Parallel(map, Spore::from, Spore::from, parallelism)
+					.appendAsStream_Parallel(Stream.<Integer>empty(), freezer, parallelism)
+					.build().toString()).isEqualTo(sequential);
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		assertThat(new SporeBuilder().appendAsStream_Parallel(numbers.stream(), freezer).appendAsMap_Parallel(map, Spore::from, Spore::from).appendAsCollection_Parallel(null, freezer).build().toString())
+				.isEqualTo(new SporeBuilder().appendAsCollection(numbers, freezer).appendAsMap(map, Spore::from, Spore::from).appendNullPayload().build().toString());
+	}
+
+
+	@Test
+	public void appendAsIterator() throws Exception
+	{
+		final AtomicInteger read = new AtomicInteger();
+		final Iterator<Integer> numbers = IntStream.range(0, 100_000).peek(number -> read.incrementAndGet()).iterator();
+
+		final SporeBuilder sb = new SporeBuilder("1").append("rows").appendAsIterator(numbers, Spore::from).appendAsIterator(Collections.emptyIterator(), Spore::from);
+		assertThat(read.get()).isZero();
+
+		final StringWriter out = new StringWriter();
+		sb.freezeTo(out);
+		assertThat(read.get()).isEqualTo(100_000);
+
+		final List<Integer> expected = IntStream.range(0, 100_000).boxed().collect(Collectors.toList());
+		assertThat(out.toString()).isEqualTo(new SporeBuilder("1").append("rows").appendAsCollection(expected, Spore::from).appendAsEmptyCollection().build().toString());
+
+		final SporeParser sp = new SporeParser(Spore.fromFrozenSpore(out.toString()));
+		assertThat(sp.nextAsString()).isEqualTo("rows");
+		assertThat(sp.nextAsList(spore -> Integer.valueOf(spore.toString()))).isEqualTo(expected);
+		assertThat(sp.nextAsList(Spore::toString)).isEmpty();
+
+		// Once streamed, the iterator is used up
+		assertThatThrownBy(() -> sb.freezeTo(new StringWriter())).isInstanceOf(IllegalStateException.class);
+
+		// Kept in memory when needed before being frozen
+		final Spore kept = new SporeBuilder().appendAsIterator(Arrays.asList("a", "b").iterator(), Spore::from).build();
+		assertThat(kept.toString()).isEqualTo("{|{|a_|_b|}|}").isEqualTo(kept.toString());
+		assertThat(kept.memberAt(0).memberCount()).isEqualTo(2);
+		assertThat(kept.memberAt(0).memberAt(1).toString()).isEqualTo("b");
+
+		// The other codecs see the empty iterators as the atomic empty collection
+		final Spore lengthPrefixed = Spore.fromFrozenSpore(SporeLengthPrefixedCodec.toFrozenSpore(new SporeBuilder().append("x").appendAsIterator(Collections.emptyIterator(), Spore::from).build()));
+		assertThat(lengthPrefixed.memberAt(1).isPayloadEmptyCollection()).isTrue();
+		assertThat(lengthPrefixed.toString()).isEqualTo(SporeLengthPrefixedCodec.toFrozenSpore(new SporeBuilder().append("x").appendAsEmptyCollection().build()));
+		assertThat(SporeLengthPrefixedCodec.toFrozenSpore(new SporeBuilder().appendAsIterator(Collections.emptyIterator(), Spore::from).build().memberAt(0))).isEqualTo(Spore.EMPTY_COLLECTION_PAYLOAD);
+
+		final Spore binary = SporeBinaryCodec.fromBytes(SporeBinaryCodec.toBytes(new SporeBuilder().appendAsIterator(Collections.emptyIterator(), Spore::from).appendAsIterator(Arrays.asList(1, 2).iterator(), Spore::from).build()));
+		assertThat(binary.memberAt(0).isPayloadEmptyCollection()).isTrue();
+		assertThat(new SporeParser(binary.memberAt(1)).nextAsInteger()).isEqualTo(1);
+	}
+
+
+	@Test
+	public void nextAsMap_Factories() throws Exception
+	{
+		final Map<UserStatus, String> statuses = new EnumMap<>(UserStatus.class);
+		statuses.put(UserStatus.ACTIVE, "a");
+		statuses.put(UserStatus.DELETED, null);
+
+		final Map<String, Integer> ordered = new LinkedHashMap<>();
+		ordered.put("z", 1);
+		ordered.put("a", 2);
+
+		final String frozen = new SporeBuilder()
+				.appendAsMap(statuses, Spore::from, Spore::from)
+				.appendAsMap(ordered, Spore::from, Spore::from)
+				.appendAsMap(ordered, Spore::from, Spore::from)
+				.appendAsMap(ordered, Spore::from, Spore::from)
+				.appendAsMap(null, Spore::from, Spore::from)
+				.appendAsMap(ImmutableMap.of(), Spore::from, Spore::from)
+				.build().toString();
+
+		for (final SporeParser sp : ImmutableList.of(new SporeParser(Spore.fromFrozenSpore(frozen)), new SporeParser(new SporeReader(new StringReader(frozen)))))
+		{
+			final EnumMap<UserStatus, String> statusMap = sp.nextAsMap(spore -> UserStatus.valueOf(spore.toString()), Spore::toString, size -> new EnumMap<>(UserStatus.class));
+			assertThat(statusMap).isEqualTo(statuses);
+
+			final LinkedHashMap<String, Integer> orderedMap = sp.nextAsMap(Spore::toString, spore -> Integer.valueOf(spore.toString()), Maps::newLinkedHashMapWithExpectedSize);
+			assertThat(orderedMap.keySet()).containsExactly("z", "a");
+
+			assertThat(sp.nextAsImmutableMap(Spore::toString, spore -> Integer.valueOf(spore.toString()))).isEqualTo(ordered);
+			assertThat(sp.nextAsMap(Spore::toString, Spore::toString, Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))).containsEntry("a", "2");
+			final HashMap<String, String> nullMap = sp.nextAsMap(Spore::toString, Spore::toString, HashMap::new);
+			assertThat(nullMap).isNull();
+			assertThat(sp.nextAsImmutableMap(Spore::toString, Spore::toString)).isEmpty();
+		}
+
+		// A lone spore is an empty map, the other odd ones are malformed, whichever way they're read
+		final String lone = new SporeBuilder().appendAsCollection(Arrays.asList("k"), Spore::from).appendAsCollection(Arrays.asList("k", "v", "k2"), Spore::from).build().toString();
+		for (final SporeParser sp : Arrays.asList(new SporeParser(Spore.fromFrozenSpore(lone)), new SporeParser(new SporeReader(new StringReader(lone)))))
+		{
+			assertThat(sp.nextAsMap(Spore::toString, Spore::toString)).isEmpty();
+			assertThatThrownBy(() -> sp.nextAsMap(Spore::toString, Spore::toString)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("not storing the map correctly");
+		}
+	}
+
+
+	@Test
+	public void packedArrays() throws Exception
+	{
+		final int[] ints = { 0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		final long[] longs = { Long.MAX_VALUE, Long.MIN_VALUE, 42 };
+		final double[] doubles = { 0.5, -0.0, Double.NaN, Double.NEGATIVE_INFINITY, 1e-300, Double.MIN_VALUE };
+
+		final Spore spore = new SporeBuilder()
+				.appendIntArray(ints)
+				.appendLongArray(longs)
+				.appendDoubleArray(doubles)
+				.appendIntArray(null)
+				.appendLongArray(new long[0])
+				.build();
+
+		assertThat(spore.memberAt(0).toString()).isEqualTo("0,-1,2147483647,-2147483648");
+
+		final SporeParser sp = new SporeParser(Spore.fromFrozenSpore(spore.toString()));
+		assertThat(sp.nextAsIntArray()).containsExactly(ints);
+		assertThat(sp.nextAsLongArray()).containsExactly(longs);
+		assertThat(sp.nextAsDoubleArray()).containsExactly(doubles);
+		assertThat(sp.nextAsIntArray()).isNull();
+		assertThat(sp.nextAsLongArray()).isEmpty();
+
+		assertThatThrownBy(() -> new SporeParser(new SporeBuilder().append("1,2147483648").build()).nextAsIntArray()).isInstanceOf(NumberFormatException.class);
+		assertThatThrownBy(() -> new SporeParser(new SporeBuilder().append("1,,2").build()).nextAsLongArray()).isInstanceOf(NumberFormatException.class);
+	}
+
+
+	@Test
+	public void metrics() throws Exception
+	{
+		final SporeMetricsRecorder recorder = new SporeMetricsRecorder();
+		SporeMetrics.install(recorder);
+
+		try
+		{
+			final String frozen = new SporeBuilder(IndexedTestObj.class).append("outer").append(new IndexedTestObj("inner")).build().toString();
+
+			assertThat(recorder.sporesBuilt()).isEqualTo(2);
+			assertThat(recorder.freezes()).isEqualTo(1);
+			assertThat(recorder.charsFrozen()).isEqualTo(frozen.length());
+
+			final IndexedTestObj unfrozen = Spore.fromFrozenSpore(frozen).toInstance();
+
+			assertThat(unfrozen.name).isEqualTo("outer");
+			assertThat(recorder.thaws()).isEqualTo(1);
+			assertThat(recorder.charsThawed()).isEqualTo(frozen.length());
+			assertThat(recorder.maxParseDepth()).isEqualTo(3);
+			assertThat(recorder.instances()).isEqualTo(1);
+
+			assertThat(recorder.byUniqueIdentifier()).containsOnlyKeys("IndexedTestObj");
+			assertThat(recorder.byUniqueIdentifier().get("IndexedTestObj").sporesBuilt()).isEqualTo(2);
+			assertThat(recorder.byUniqueIdentifier().get("IndexedTestObj").freezes()).isEqualTo(1);
+			assertThat(recorder.byUniqueIdentifier().get("IndexedTestObj").instances()).isEqualTo(1);
+
+			// Remembered after the first lookup, even when nothing was found
+			final long misses = recorder.registryMisses();
+			assertThat(SporableRegistry.find("IndexedTestObj", null, "Spore_ModelTest")).contains(IndexedTestObj.class);
+			assertThat(SporableRegistry.find("IndexedTestObj", null, "Spore_ModelTest")).contains(IndexedTestObj.class);
+			assertThat(recorder.registryMisses()).isEqualTo(misses + 1);
+
+			assertThat(SporableRegistry.find("MetricsTestObj_Missing", null, null)).isEmpty();
+			assertThat(SporableRegistry.find("MetricsTestObj_Missing", null, null)).isEmpty();
+			assertThat(recorder.registryMisses()).isEqualTo(misses + 2);
+
+			// Written into an output, or in the other dialects. The binary size is in bytes.
+			final StringWriter out = new StringWriter();
+			new SporeBuilder(IndexedTestObj.class).append("streamed").freezeTo(out);
+			new SporeBuilder().append("x").build().freezeTo(out);
+			final String lengthPrefixed = SporeLengthPrefixedCodec.toFrozenSpore(Spore.fromFrozenSpore(frozen));
+			final byte[] bytes = SporeBinaryCodec.toBytes(Spore.fromFrozenSpore(frozen));
+
+			assertThat(recorder.freezes()).isEqualTo(5);
+			assertThat(recorder.charsFrozen()).isEqualTo(frozen.length() + out.toString().length() + lengthPrefixed.length() + bytes.length);
+			assertThat(recorder.byUniqueIdentifier().get("IndexedTestObj").freezes()).isEqualTo(4);
+		}
+		finally
+		{
+			SporeMetrics.uninstall();
+		}
+
+		new IndexedTestObj("ignored").assembleSpore().build().toString();
+		assertThat(recorder.sporesBuilt()).isEqualTo(2);
+		assertThat(SporeMetrics.installed()).isEmpty();
+	}
+
+
+	@Test
+	public void fromString_DelimiterInPayload() throws Exception
+	{
+		// The brace counting parser keeps the unbalanced brace inside the payload
+		final Spore spore = Spore.fromFrozenSpore("{|a{|b_|_c|}");
+
+		final SporeParser sp = new SporeParser(spore);
+		assertThat(sp.nextAsString()).isEqualTo("a{|b_|_c");
+		assertThat(sp.hasNext()).isFalse();
+	}
+
+
 	@Test
 	public void fromStringIllegalArgument() throws Exception
 	{
@@ -239,6 +1158,61 @@ public class Spore_ModelTest
 	}
 
 
+	/**
+	 * A spore which only has an iterator, like the ones outside this package
+	 */
+	private static class CountingSpore extends Spore
+	{
+
+		final private Spore spore;
+
+		final private AtomicInteger iterations = new AtomicInteger();
+
+
+		private CountingSpore(final Spore spore)
+		{
+			this.spore = spore;
+		}
+
+
+		@Override
+		public Iterator<Spore> iterator()
+		{
+			iterations.incrementAndGet();
+			return spore.iterator();
+		}
+
+
+		@Override
+		public String version()
+		{
+			return spore.version();
+		}
+
+
+		@Override
+		public String uniqueIdentifier()
+		{
+			return spore.uniqueIdentifier();
+		}
+
+
+		@Override
+		public SporeMetadata metadata()
+		{
+			return spore.metadata();
+		}
+
+
+		@Override
+		public boolean isPayloadNull()
+		{
+			return spore.isPayloadNull();
+		}
+
+	}
+
+
 	private static class TestObj implements ISporable
 	{
 
@@ -296,6 +1270,175 @@ public class Spore_ModelTest
 		}
 	}
 
+
+	@Sporable(uniqueIdentifier = "IndexedTestObj", version = "v1")
+	public static class IndexedTestObj implements ISporable
+	{
+
+		private String name;
+
+		public IndexedTestObj()
+		{
+		}
+
+		public IndexedTestObj(final String name)
+		{
+			this.name = name;
+		}
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return new SporeBuilder(IndexedTestObj.class)
+					.append(name);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			name = new SporeParser(spore).nextAsString();
+			return this;
+		}
+	}
+
+
+	private static class VersionedTestObj implements ISporable
+	{
+
+		final private String version;
+
+		private String name;
+
+		private VersionedTestObj(final String version)
+		{
+			this.version = version;
+		}
+
+		private VersionedTestObj(final String version, final String name)
+		{
+			this.version = version;
+			this.name = name;
+		}
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return new SporeBuilder(version)
+					.append(name);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			name = new SporeParser(spore).nextAsString();
+			return this;
+		}
+	}
+
+
+	@Sporable(uniqueIdentifier = "RegisteredTestObj")
+	private static class RegisteredTestObj implements ISporable
+	{
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return new SporeBuilder(RegisteredTestObj.class);
+		}
+	}
+
+
+	@Sporable(uniqueIdentifier = "AutoTestObj", version = "v2")
+	@Spore.AutoSporable
+	static class AutoTestObj implements ISporable
+	{
+
+		int count;
+		long total;
+		double ratio;
+		boolean enabled;
+		Integer optionalCount;
+		String name;
+		UUID id;
+		IndexedTestObj child;
+		long[] points;
+		transient String cache;
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return Spore_ModelTest_AutoTestObj_Spore.assembleSpore(this);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			return Spore_ModelTest_AutoTestObj_Spore.populateFromSpore(this, spore);
+		}
+	}
+
+
+	abstract static class AutoTestBase implements ISporable
+	{
+		String owner;
+	}
+
+
+	@Sporable(uniqueIdentifier = "AutoTestSubObj")
+	@Spore.AutoSporable
+	static class AutoTestSubObj extends AutoTestBase
+	{
+
+		IndexedTestObj child;
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return Spore_ModelTest_AutoTestSubObj_Spore.assembleSpore(this);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			return Spore_ModelTest_AutoTestSubObj_Spore.populateFromSpore(this, spore);
+		}
+	}
+
+
+	@Sporable(uniqueIdentifier = "IndexedTestSubObj")
+	public static class IndexedTestSubObj extends IndexedTestObj
+	{
+
+		private int level;
+
+		public IndexedTestSubObj()
+		{
+		}
+
+		public IndexedTestSubObj(final String name, final int level)
+		{
+			super(name);
+			this.level = level;
+		}
+
+		@Override
+		public SporeBuilder assembleSpore()
+		{
+			return new SporeBuilder(IndexedTestSubObj.class)
+					.append(super.assembleSpore().build())
+					.append(level);
+		}
+
+		@Override
+		public ISporable populateFromSpore(final Spore spore)
+		{
+			final SporeParser parser = new SporeParser(spore);
+			super.populateFromSpore(parser.nextAsSpore());
+			level = parser.nextInt();
+			return this;
+		}
+	}
+
 	
 	private enum UserStatus 
 	{